@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.core;
+
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Retained fragment without view, which holds all {@link PersistentScreenScope} of one Activity,
+ * when single container mode is enabled
+ * (see {@link PersistentScreenScope#setSingleContainerModeEnabled(boolean)}).
+ * Scopes are stored as plain objects and are not added to FragmentManager,
+ * so num of fragments doesn't depend on num of screens.
+ * <p>
+ * Container must be accessed only from main thread.
+ */
+public class PSSContainerFragment extends Fragment {
+
+    private static final String TAG = "screen_scope_container";
+
+    private final Map<String, PersistentScreenScope> scopes = new HashMap<>();
+
+    /**
+     * @return container of fragmentManager or null, if it not exist
+     */
+    static PSSContainerFragment find(FragmentManager fragmentManager) {
+        PSSContainerFragment container = ScreenScopeRegistry.getContainer(fragmentManager);
+        if (container == null) {
+            container = (PSSContainerFragment) fragmentManager.findFragmentByTag(TAG);
+            if (container != null) {
+                ScreenScopeRegistry.putContainer(fragmentManager, container);
+            }
+        }
+        return container;
+    }
+
+    /**
+     * @return container of fragmentManager, container is created, if it not exist
+     */
+    static PSSContainerFragment findOrAttach(FragmentManager fragmentManager) {
+        PSSContainerFragment container = find(fragmentManager);
+        if (container == null) {
+            container = new PSSContainerFragment();
+            fragmentManager.beginTransaction()
+                    .add(container, TAG)
+                    .commit();
+            ScreenScopeRegistry.putContainer(fragmentManager, container);
+        }
+        return container;
+    }
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setRetainInstance(true);
+    }
+
+    @Override
+    public void onDetach() {
+        super.onDetach();
+        for (PersistentScreenScope scope : scopes.values()) {
+            scope.onContainerDetached();
+        }
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        ScreenScopeRegistry.removeContainer(this);
+        for (PersistentScreenScope scope : new ArrayList<>(scopes.values())) {
+            scope.onContainerDestroyed();
+        }
+        scopes.clear();
+    }
+
+    PersistentScreenScope get(String screenName) {
+        return scopes.get(screenName);
+    }
+
+    void add(String screenName, PersistentScreenScope scope) {
+        scopes.put(screenName, scope);
+    }
+
+    void remove(PersistentScreenScope scope) {
+        scopes.values().remove(scope);
+    }
+}
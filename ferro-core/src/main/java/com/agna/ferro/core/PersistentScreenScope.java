@@ -17,16 +17,22 @@ package com.agna.ferro.core;
 
 import android.app.Activity;
 import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.support.annotation.Nullable;
 import android.support.v4.app.Fragment;
 import android.support.v4.app.FragmentManager;
 import android.support.v4.app.FragmentTransaction;
 import android.support.v7.app.AppCompatActivity;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 
 /**
@@ -41,18 +47,53 @@ import java.util.Set;
  * {@link PersistentScreenScope#destroy(AppCompatActivity, String)},
  * otherwise PersistentScreenScope to be destroyed after the root activity is finally destroyed.
  * In reality, PersistentScreenScope is retained fragment without view.
+ * If single container mode is enabled (see {@link #setSingleContainerModeEnabled(boolean)}),
+ * PersistentScreenScope is plain object, stored in one retained {@link PSSContainerFragment}
+ * for all screens of Activity.
+ * <p>
+ * Objects can be put to and got from scope in any thread.
  */
 public class PersistentScreenScope extends Fragment {
 
-    private static final String SCREEN_SCOPE_NAME_FORMAT = "screen_scope_%s";
+    private static final String SCREEN_SCOPE_NAME_PREFIX = "screen_scope_";
+
+    private static volatile boolean singleContainerModeEnabled = false;
 
-    private final Set<OnScopeDestroyListener> onScopeDestroyListeners = new HashSet<>();
-    private final Map<ObjectKey, Object> objects = new HashMap<>();
-    private boolean destroyed = false;
+    private final Set<OnScopeDestroyListener> onScopeDestroyListeners = new CopyOnWriteArraySet<>();
+    private final ConcurrentMap<ObjectKey, Object> objects = new ConcurrentHashMap<>();
+    /**
+     * objects, stored with {@link ScopeKey}, index in array is index of key,
+     * array is written and replaced only under keyedObjectsLock
+     */
+    private volatile AtomicReferenceArray<Object> keyedObjects = new AtomicReferenceArray<>(0);
+    private final Object keyedObjectsLock = new Object();
+    /**
+     * objects, which are being created in {@link #getOrCreate(ScopeKey, ObjectFactory)}
+     */
+    private final ConcurrentMap<Object, FutureTask<?>> creatingObjects = new ConcurrentHashMap<>();
+    private volatile boolean destroyed = false;
     private boolean screenRecreated = false;
 
     private Activity parentActivity;
     private Fragment parentFragment;
+    /**
+     * not null, if scope is stored in container instead of FragmentManager
+     */
+    private PSSContainerFragment container;
+
+    /**
+     * If true, scopes of all screens of Activity are stored in one retained
+     * {@link PSSContainerFragment} instead of adding retained fragment for each screen.
+     * This option should be set once before creating first screen (e.g. in Application#onCreate).
+     * Default disabled.
+     */
+    public static void setSingleContainerModeEnabled(boolean enabled) {
+        singleContainerModeEnabled = enabled;
+    }
+
+    public static boolean isSingleContainerModeEnabled() {
+        return singleContainerModeEnabled;
+    }
 
     /**
      * Destroy {@link PersistentScreenScope}
@@ -81,8 +122,7 @@ public class PersistentScreenScope extends Fragment {
 
     private static boolean destroyInternal(AppCompatActivity rootActivity, String screenName) {
         PersistentScreenScope persistentScreenScope =
-                (PersistentScreenScope) rootActivity.getSupportFragmentManager()
-                        .findFragmentByTag(getName(screenName));
+                find(rootActivity.getSupportFragmentManager(), screenName);
         if (persistentScreenScope != null) {
             persistentScreenScope.destroy();
             return true;
@@ -97,8 +137,20 @@ public class PersistentScreenScope extends Fragment {
      */
     @Nullable
     public static PersistentScreenScope find(FragmentManager fragmentManager, String screenName) {
-        return (PersistentScreenScope) fragmentManager
-                .findFragmentByTag(getName(screenName));
+        PersistentScreenScope scope = ScreenScopeRegistry.get(fragmentManager, screenName);
+        if (scope == null) {
+            //e.g. after recreating activity scope is retained by new FragmentManager
+            scope = (PersistentScreenScope) fragmentManager
+                    .findFragmentByTag(getName(screenName));
+            if (scope == null) {
+                PSSContainerFragment container = PSSContainerFragment.find(fragmentManager);
+                scope = container != null ? container.get(screenName) : null;
+            }
+            if (scope != null) {
+                ScreenScopeRegistry.put(fragmentManager, screenName, scope);
+            }
+        }
+        return scope;
     }
 
     /**
@@ -124,7 +176,7 @@ public class PersistentScreenScope extends Fragment {
      * @return name of  {@link PersistentScreenScope}
      */
     private static String getName(String screenName) {
-        return String.format(SCREEN_SCOPE_NAME_FORMAT, screenName);
+        return SCREEN_SCOPE_NAME_PREFIX + screenName;
     }
 
     @Override
@@ -136,10 +188,7 @@ public class PersistentScreenScope extends Fragment {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        destroyed = true;
-        for (OnScopeDestroyListener onDestroyListener : onScopeDestroyListeners) {
-            onDestroyListener.onDestroy();
-        }
+        onScopeDestroyed();
     }
 
     @Override
@@ -148,6 +197,29 @@ public class PersistentScreenScope extends Fragment {
         screenRecreated = true;
     }
 
+    /**
+     * Called instead of {@link #onDetach()}, if scope is stored in container
+     */
+    void onContainerDetached() {
+        screenRecreated = true;
+    }
+
+    /**
+     * Called instead of {@link #onDestroy()}, if scope is stored in container
+     */
+    void onContainerDestroyed() {
+        container = null;
+        onScopeDestroyed();
+    }
+
+    private void onScopeDestroyed() {
+        destroyed = true;
+        ScreenScopeRegistry.remove(this);
+        for (OnScopeDestroyListener onDestroyListener : onScopeDestroyListeners) {
+            onDestroyListener.onDestroy();
+        }
+    }
+
     public boolean isScreenRecreated() {
         return screenRecreated;
     }
@@ -155,25 +227,31 @@ public class PersistentScreenScope extends Fragment {
     /**
      * Put object to scope
      *
-     * @param object
+     * @param object - if null, object with this key is removed
      * @param tag    - key, which used for store object in scope
      */
     public <T> void putObject(T object, String tag) {
         assertNotDestroyed();
-        ObjectKey key = new ObjectKey(tag);
-        objects.put(key, object);
+        putObject(new ObjectKey(tag), object);
     }
 
     /**
      * Put object to scope
      *
-     * @param object
+     * @param object - if null, object with this key is removed
      * @param clazz  key, which used for store object in scope
      */
     public <T> void putObject(T object, Class<T> clazz) {
         assertNotDestroyed();
-        ObjectKey key = new ObjectKey(clazz);
-        objects.put(key, object);
+        putObject(new ObjectKey(clazz), object);
+    }
+
+    private void putObject(ObjectKey key, Object object) {
+        if (object != null) {
+            objects.put(key, object);
+        } else {
+            objects.remove(key);
+        }
     }
 
     /**
@@ -184,7 +262,7 @@ public class PersistentScreenScope extends Fragment {
     public <T> T getObject(String tag) {
         assertNotDestroyed();
         ObjectKey key = new ObjectKey(tag);
-        return (T) objects.get(key);
+        return (T) resolve(objects.get(key));
     }
 
     /**
@@ -195,7 +273,226 @@ public class PersistentScreenScope extends Fragment {
     public <T> T getObject(Class<T> clazz) {
         assertNotDestroyed();
         ObjectKey key = new ObjectKey(clazz);
-        return clazz.cast(objects.get(key));
+        return clazz.cast(resolve(objects.get(key)));
+    }
+
+    /**
+     * Put object to scope
+     * Objects, stored with {@link ScopeKey}, are independent from objects,
+     * stored with String or Class keys
+     *
+     * @param object
+     * @param key    - key, which used for store object in scope
+     */
+    public <T> void putObject(T object, ScopeKey<T> key) {
+        assertNotDestroyed();
+        putKeyedObject(key.getIndex(), object);
+    }
+
+    private void putKeyedObject(int index, Object object) {
+        synchronized (keyedObjectsLock) {
+            AtomicReferenceArray<Object> current = keyedObjects;
+            if (index >= current.length()) {
+                AtomicReferenceArray<Object> next = new AtomicReferenceArray<>(
+                        Math.max(index + 1, current.length() * 2));
+                for (int i = 0; i < current.length(); i++) {
+                    next.set(i, current.get(i));
+                }
+                keyedObjects = next;
+                current = next;
+            }
+            current.set(index, object);
+        }
+    }
+
+    /**
+     * @param key key
+     * @return object from scope
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T getObject(ScopeKey<T> key) {
+        assertNotDestroyed();
+        return (T) resolve(getKeyedObject(key.getIndex()));
+    }
+
+    private Object getKeyedObject(int index) {
+        AtomicReferenceArray<Object> current = keyedObjects;
+        return index < current.length() ? current.get(index) : null;
+    }
+
+    /**
+     * Put lazy object to scope, object is created by factory on first getting
+     * and kept in scope, as if it is put via {@link #putObject(Object, ScopeKey)}.
+     * Object is created only once, see {@link #getOrCreate(ScopeKey, ObjectFactory)}.
+     *
+     * @param factory - creates object, must not return null
+     * @param key     - key, which used for store object in scope
+     */
+    public <T> void putLazy(ObjectFactory<T> factory, ScopeKey<T> key) {
+        assertNotDestroyed();
+        putKeyedObject(key.getIndex(), new LazyObject<>(key, factory));
+    }
+
+    /**
+     * @see #putLazy(ObjectFactory, ScopeKey)
+     */
+    public <T> void putLazy(ObjectFactory<T> factory, Class<T> clazz) {
+        assertNotDestroyed();
+        ObjectKey key = new ObjectKey(clazz);
+        objects.put(key, new LazyObject<>(key, factory));
+    }
+
+    /**
+     * @see #putLazy(ObjectFactory, ScopeKey)
+     */
+    public <T> void putLazy(ObjectFactory<T> factory, String tag) {
+        assertNotDestroyed();
+        ObjectKey key = new ObjectKey(tag);
+        objects.put(key, new LazyObject<>(key, factory));
+    }
+
+    /**
+     * Create all lazy objects of this scope, which are not created yet
+     */
+    public void warmUpLazyObjects() {
+        for (Object object : objects.values()) {
+            resolve(object);
+        }
+        AtomicReferenceArray<Object> current = keyedObjects;
+        for (int i = 0; i < current.length(); i++) {
+            resolve(current.get(i));
+        }
+    }
+
+    /**
+     * Create all lazy objects of this scope, when main thread becomes idle
+     * (e.g. after first frame of screen is drawn).
+     * Must be called on main thread.
+     */
+    public void warmUpLazyObjectsWhenIdle() {
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                if (!destroyed) {
+                    warmUpLazyObjects();
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * @return object, stored in scope, lazy object is created
+     */
+    @SuppressWarnings("unchecked")
+    private Object resolve(Object storedObject) {
+        if (storedObject instanceof LazyObject) {
+            LazyObject<Object> lazyObject = (LazyObject<Object>) storedObject;
+            return create(lazyObject.key, lazyObject.factory);
+        }
+        return storedObject;
+    }
+
+    /**
+     * Return object from scope or create it via factory and put to scope, if it doesn't exist.
+     * Object is created only once even if this method is called from many threads at once,
+     * factory is called in the thread of the caller, other callers wait for the object.
+     * If factory throws exception, it is thrown to all waiting callers and object isn't put.
+     *
+     * @param key     key
+     * @param factory - creates object, must not return null
+     * @return object from scope
+     */
+    public <T> T getOrCreate(ScopeKey<T> key, ObjectFactory<T> factory) {
+        T object = getObject(key);
+        return object != null ? object : create(key, factory);
+    }
+
+    /**
+     * @see #getOrCreate(ScopeKey, ObjectFactory)
+     */
+    public <T> T getOrCreate(Class<T> clazz, ObjectFactory<T> factory) {
+        T object = getObject(clazz);
+        return object != null ? object : create(new ObjectKey(clazz), factory);
+    }
+
+    /**
+     * @see #getOrCreate(ScopeKey, ObjectFactory)
+     */
+    public <T> T getOrCreate(String tag, ObjectFactory<T> factory) {
+        T object = getObject(tag);
+        return object != null ? object : create(new ObjectKey(tag), factory);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T create(final Object key, final ObjectFactory<T> factory) {
+        FutureTask<T> task = new FutureTask<>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                //object can be put by another caller, which finished creating before putIfAbsent
+                Object storedObject = getStoredObject(key);
+                if (storedObject != null && !(storedObject instanceof LazyObject)) {
+                    return (T) storedObject;
+                }
+                T object = factory.create();
+                if (object == null) {
+                    throw new NullPointerException("factory returned null");
+                }
+                return object;
+            }
+        });
+        FutureTask<T> creating = (FutureTask<T>) creatingObjects.putIfAbsent(key, task);
+        if (creating != null) {
+            return getCreatedObject(creating);
+        }
+        try {
+            task.run();
+            T object = getCreatedObject(task);
+            if (getStoredObject(key) == object) {
+                return object;
+            }
+            if (key instanceof ScopeKey) {
+                putKeyedObject(((ScopeKey<T>) key).getIndex(), object);
+            } else {
+                putObject((ObjectKey) key, object);
+            }
+            return object;
+        } finally {
+            creatingObjects.remove(key, task);
+        }
+    }
+
+    private Object getStoredObject(Object key) {
+        return key instanceof ScopeKey
+                ? getKeyedObject(((ScopeKey<?>) key).getIndex())
+                : objects.get(key);
+    }
+
+    private static <T> T getCreatedObject(FutureTask<T> task) {
+        boolean interrupted = false;
+        try {
+            for (; ; ) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new RuntimeException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     /**
@@ -203,6 +500,9 @@ public class PersistentScreenScope extends Fragment {
      */
     public void clear() {
         objects.clear();
+        synchronized (keyedObjectsLock) {
+            keyedObjects = new AtomicReferenceArray<>(0);
+        }
     }
 
     /**
@@ -229,9 +529,15 @@ public class PersistentScreenScope extends Fragment {
      * @param fragmentManager - fragmentManager of screen
      */
     public void attach(FragmentManager fragmentManager, String screenName) {
-        FragmentTransaction ft = fragmentManager.beginTransaction();
-        ft.add(this, PersistentScreenScope.getName(screenName));
-        ft.commit();
+        if (singleContainerModeEnabled) {
+            container = PSSContainerFragment.findOrAttach(fragmentManager);
+            container.add(screenName, this);
+        } else {
+            FragmentTransaction ft = fragmentManager.beginTransaction();
+            ft.add(this, PersistentScreenScope.getName(screenName));
+            ft.commit();
+        }
+        ScreenScopeRegistry.put(fragmentManager, screenName, this);
     }
 
     /**
@@ -240,6 +546,15 @@ public class PersistentScreenScope extends Fragment {
      * and you want immediately destroy PersistentScreenScope
      */
     public void destroy() {
+        if (destroyed) {
+            return;
+        }
+        if (container != null) {
+            //scope isn't fragment of FragmentManager, so it is destroyed immediately
+            container.remove(this);
+            onContainerDestroyed();
+            return;
+        }
         FragmentTransaction fragmentTransaction = getActivity().getSupportFragmentManager()
                 .beginTransaction();
         fragmentTransaction.remove(this);
@@ -250,8 +565,11 @@ public class PersistentScreenScope extends Fragment {
      * Work as {@link #destroy()}, but it executes immediately
      */
     public void destroyImmediately() {
+        boolean storedInContainer = container != null;
         destroy();
-        getFragmentManager().executePendingTransactions();
+        if (!storedInContainer) {
+            getFragmentManager().executePendingTransactions();
+        }
     }
 
     private void assertNotDestroyed() {
@@ -319,4 +637,24 @@ public class PersistentScreenScope extends Fragment {
     public interface OnScopeDestroyListener {
         void onDestroy();
     }
+
+    /**
+     * Factory of object, see {@link #getOrCreate(ScopeKey, ObjectFactory)}
+     */
+    public interface ObjectFactory<T> {
+        T create();
+    }
+
+    /**
+     * Object, which is created on first getting
+     */
+    private static final class LazyObject<T> {
+        private final Object key;
+        private final ObjectFactory<T> factory;
+
+        LazyObject(Object key, ObjectFactory<T> factory) {
+            this.key = key;
+            this.factory = factory;
+        }
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Typed key, used for store objects in {@link PersistentScreenScope}.
+ * Each key has unique index, so object is found in the scope by index without allocations
+ * and hashing, therefore keys should be created once and stored in static constants, e.g.
+ * <pre>
+ * static final ScopeKey&lt;Navigator&gt; NAVIGATOR_KEY = ScopeKey.create(Navigator.class);
+ * </pre>
+ * Two keys are different even if they are created with the same name.
+ *
+ * @param <T> type of object, stored with this key
+ */
+public final class ScopeKey<T> {
+
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
+    private final int index;
+    private final String name;
+
+    private ScopeKey(String name) {
+        this.index = NEXT_INDEX.getAndIncrement();
+        this.name = name;
+    }
+
+    /**
+     * @param name - name of key, used only for debugging
+     */
+    public static <T> ScopeKey<T> create(String name) {
+        return new ScopeKey<>(name);
+    }
+
+    public static <T> ScopeKey<T> create(Class<T> clazz) {
+        return new ScopeKey<>(clazz.getName());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "ScopeKey{" + name + '}';
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.core;
+
+import android.support.v4.app.FragmentManager;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Registry of live {@link PersistentScreenScope} and {@link PSSContainerFragment}, used for
+ * finding scope by FragmentManager and name of screen without searching in FragmentManager.
+ * Scope is added when it is attached or found in FragmentManager, and removed when it is destroyed.
+ * FragmentManagers are kept via weak references, so registry doesn't hold destroyed activities.
+ */
+final class ScreenScopeRegistry {
+
+    private static final Map<FragmentManager, Map<String, PersistentScreenScope>> SCOPES =
+            new WeakHashMap<>();
+    private static final Map<FragmentManager, PSSContainerFragment> CONTAINERS =
+            new WeakHashMap<>();
+
+    private ScreenScopeRegistry() {
+    }
+
+    static synchronized PersistentScreenScope get(FragmentManager fragmentManager,
+                                                  String screenName) {
+        Map<String, PersistentScreenScope> scopes = SCOPES.get(fragmentManager);
+        return scopes != null ? scopes.get(screenName) : null;
+    }
+
+    static synchronized void put(FragmentManager fragmentManager,
+                                 String screenName,
+                                 PersistentScreenScope scope) {
+        Map<String, PersistentScreenScope> scopes = SCOPES.get(fragmentManager);
+        if (scopes == null) {
+            scopes = new HashMap<>();
+            SCOPES.put(fragmentManager, scopes);
+        }
+        scopes.put(screenName, scope);
+    }
+
+    /**
+     * Remove scope for all FragmentManagers
+     */
+    static synchronized void remove(PersistentScreenScope scope) {
+        Iterator<Map<String, PersistentScreenScope>> managersIterator = SCOPES.values().iterator();
+        while (managersIterator.hasNext()) {
+            Map<String, PersistentScreenScope> scopes = managersIterator.next();
+            scopes.values().remove(scope);
+            if (scopes.isEmpty()) {
+                managersIterator.remove();
+            }
+        }
+    }
+
+    static synchronized PSSContainerFragment getContainer(FragmentManager fragmentManager) {
+        return CONTAINERS.get(fragmentManager);
+    }
+
+    static synchronized void putContainer(FragmentManager fragmentManager,
+                                          PSSContainerFragment container) {
+        CONTAINERS.put(fragmentManager, container);
+    }
+
+    static synchronized void removeContainer(PSSContainerFragment container) {
+        CONTAINERS.values().remove(container);
+    }
+}
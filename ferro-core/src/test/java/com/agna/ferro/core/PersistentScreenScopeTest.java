@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class PersistentScreenScopeTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void objectIsCreatedOnceUnderConcurrentFirstAccess() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            final PersistentScreenScope scope = new PersistentScreenScope();
+            final ScopeKey<Object> key = ScopeKey.create("object");
+            final AtomicInteger createdCount = new AtomicInteger();
+            List<Object> objects = getOrCreateConcurrently(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return scope.getOrCreate(key, new CountingFactory(createdCount));
+                }
+            });
+
+            assertEquals(1, createdCount.get());
+            for (Object object : objects) {
+                assertSame(scope.getObject(key), object);
+            }
+        }
+    }
+
+    @Test
+    public void objectWithTagIsCreatedOnceUnderConcurrentFirstAccess() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            final PersistentScreenScope scope = new PersistentScreenScope();
+            final AtomicInteger createdCount = new AtomicInteger();
+            List<Object> objects = getOrCreateConcurrently(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return scope.getOrCreate("object", new CountingFactory(createdCount));
+                }
+            });
+
+            assertEquals(1, createdCount.get());
+            for (Object object : objects) {
+                assertSame(scope.getObject("object"), object);
+            }
+        }
+    }
+
+    @Test
+    public void existingObjectIsReturnedWithoutCreating() {
+        PersistentScreenScope scope = new PersistentScreenScope();
+        ScopeKey<Object> key = ScopeKey.create("object");
+        Object object = new Object();
+        scope.putObject(object, key);
+        AtomicInteger createdCount = new AtomicInteger();
+
+        assertSame(object, scope.getOrCreate(key, new CountingFactory(createdCount)));
+        assertEquals(0, createdCount.get());
+    }
+
+    @Test
+    public void objectIsNotPutIfFactoryFails() {
+        PersistentScreenScope scope = new PersistentScreenScope();
+        ScopeKey<Object> key = ScopeKey.create("object");
+        try {
+            scope.getOrCreate(key, new PersistentScreenScope.ObjectFactory<Object>() {
+                @Override
+                public Object create() {
+                    throw new IllegalStateException();
+                }
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        assertNull(scope.getObject(key));
+
+        AtomicInteger createdCount = new AtomicInteger();
+        scope.getOrCreate(key, new CountingFactory(createdCount));
+        assertEquals(1, createdCount.get());
+    }
+
+    private static List<Object> getOrCreateConcurrently(final Callable<Object> getOrCreate)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        start.await();
+                        return getOrCreate.call();
+                    }
+                }));
+            }
+            start.countDown();
+            List<Object> objects = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                objects.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return objects;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class CountingFactory implements PersistentScreenScope.ObjectFactory<Object> {
+
+        private final AtomicInteger createdCount;
+
+        CountingFactory(AtomicInteger createdCount) {
+            this.createdCount = createdCount;
+        }
+
+        @Override
+        public Object create() {
+            createdCount.incrementAndGet();
+            //give other callers time to wait for the object
+            Thread.yield();
+            return new Object();
+        }
+    }
+}
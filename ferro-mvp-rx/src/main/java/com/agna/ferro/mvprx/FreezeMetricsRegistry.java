@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.mvprx;
+
+import com.agna.ferro.rx.FreezeCycleMetrics;
+import com.agna.ferro.rx.FreezeMetricsListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collects statistic of freezing of rx events of {@link MvpRxPresenter} subscriptions
+ * per screen name (see {@link com.agna.ferro.core.HasName}).
+ * It helps to find screens, which buffer many events in background or emit them
+ * for a long time after resuming.
+ *
+ * Collecting is disabled by default, enable it before screens are created,
+ * subscriptions, created when collecting is disabled, are not tracked.
+ */
+public final class FreezeMetricsRegistry {
+
+    private static final ConcurrentMap<String, ScreenFreezeMetrics> METRICS
+            = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = false;
+
+    private FreezeMetricsRegistry() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        FreezeMetricsRegistry.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return statistic of screen, null if there is no finished freeze cycles for this screen
+     */
+    public static ScreenFreezeMetrics getMetrics(String screenName) {
+        ScreenFreezeMetrics metrics = METRICS.get(screenName);
+        return metrics != null ? metrics.copy() : null;
+    }
+
+    /**
+     * @return statistic of all screens
+     */
+    public static List<ScreenFreezeMetrics> getAllMetrics() {
+        List<ScreenFreezeMetrics> result = new ArrayList<>(METRICS.size());
+        for (ScreenFreezeMetrics metrics : METRICS.values()) {
+            result.add(metrics.copy());
+        }
+        return result;
+    }
+
+    public static void reset() {
+        METRICS.clear();
+    }
+
+    /**
+     * @return listener, which adds statistic of freeze cycles to the screen's statistic
+     */
+    static FreezeMetricsListener createListener(final String screenName) {
+        return new FreezeMetricsListener() {
+            @Override
+            public void onFreezeCycleFinished(FreezeCycleMetrics metrics) {
+                getOrCreate(screenName).add(metrics);
+            }
+        };
+    }
+
+    private static ScreenFreezeMetrics getOrCreate(String screenName) {
+        ScreenFreezeMetrics metrics = METRICS.get(screenName);
+        if (metrics == null) {
+            ScreenFreezeMetrics newMetrics = new ScreenFreezeMetrics(screenName);
+            metrics = METRICS.putIfAbsent(screenName, newMetrics);
+            if (metrics == null) {
+                metrics = newMetrics;
+            }
+        }
+        return metrics;
+    }
+}
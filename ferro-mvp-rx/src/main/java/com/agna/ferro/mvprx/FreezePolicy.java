@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.mvprx;
+
+/**
+ * Defines, when events of subscription are frozen by {@link MvpRxPresenter}.
+ * All events are unfrozen when view is resumed or recreated.
+ */
+public enum FreezePolicy {
+    /**
+     * Events are frozen when screen is paused or view is destroyed
+     */
+    ON_PAUSE,
+    /**
+     * Events are frozen when screen is stopped (e.g. when it is invisible) or view is destroyed
+     */
+    ON_STOP,
+    /**
+     * Events are frozen only when view is destroyed
+     */
+    ON_DETACH,
+    /**
+     * Events are never frozen, freeze buffer isn't created
+     */
+    NEVER
+}
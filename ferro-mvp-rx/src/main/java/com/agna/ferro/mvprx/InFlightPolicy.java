@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.mvprx;
+
+/**
+ * Defines, what {@link MvpRxPresenter} does, when observable is subscribed with the key
+ * of request, which is still running
+ */
+public enum InFlightPolicy {
+    /**
+     * New subscriber receives events of running request, new request isn't started.
+     * The last event, which request has emitted before subscribing, is emitted to new subscriber
+     * too, so it doesn't miss result of request, which has already arrived
+     */
+    JOIN,
+    /**
+     * Running request is unsubscribed and new request is started
+     */
+    SWITCH,
+    /**
+     * New subscriber isn't subscribed, running request continues
+     */
+    IGNORE
+}
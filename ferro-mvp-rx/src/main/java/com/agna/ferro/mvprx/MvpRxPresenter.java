@@ -19,15 +19,39 @@ import android.support.annotation.CallSuper;
 
 import com.agna.ferro.mvp.view.BaseView;
 import com.agna.ferro.mvp.presenter.MvpPresenter;
+import com.agna.ferro.rx.BufferOverflowPolicy;
+import com.agna.ferro.rx.FreezeBuffer;
+import com.agna.ferro.rx.FreezeBuffers;
+import com.agna.ferro.rx.FreezeGate;
+import com.agna.ferro.rx.FreezeSequencer;
 import com.agna.ferro.rx.OperatorFreeze;
+import com.agna.ferro.rx.OperatorFreezeBatch;
+import com.agna.ferro.rx.OperatorFreezeCompletable;
+import com.agna.ferro.rx.OperatorFreezeReduce;
+import com.agna.ferro.rx.OperatorFreezeSingle;
+import com.agna.ferro.rx.OperatorOrderedFreeze;
+import com.agna.ferro.rx.TransformerFreezeUpstream;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.Completable;
 import rx.Observable;
+import rx.Scheduler;
+import rx.Single;
 import rx.Subscriber;
 import rx.Subscription;
+import rx.functions.Action0;
 import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
 import rx.functions.Func2;
-import rx.subjects.BehaviorSubject;
+import rx.observers.SafeSubscriber;
 import rx.subscriptions.CompositeSubscription;
+import rx.subscriptions.Subscriptions;
 
 /**
  * Presenter with freeze logic.
@@ -36,6 +60,8 @@ import rx.subscriptions.CompositeSubscription;
  * when view recreated (see {@link OperatorFreeze}).
  *
  * When screen finally destroyed, all subscriptions would be automatically unsubscribed.
+ * Finished subscriptions are removed from presenter immediately,
+ * see {@link #getActiveSubscriptionsCount()}.
  *
  * When configuration changed, presenter isn't destroyed and reused for new view
  *
@@ -43,12 +69,44 @@ import rx.subscriptions.CompositeSubscription;
  * would be also frozen when screen paused and unfrozen when screen resumed.
  * If option freezeEventOnPause disabled, screen may handle event when it invisible
  * (e.g. when Activity in back stack) and user can miss important information e.g. SnackBar
+ *
+ * Policy of freezing can be also defined for each subscription, see {@link FreezePolicy}.
+ *
+ * If ordered freeze is enabled (see {@link #setOrderedFreezeEnabled(Scheduler)}), events of
+ * subscriptions, created via subscribeOrdered methods, are kept in one queue and emitted
+ * in order of arrival after unfreezing.
+ *
+ * If {@link FreezeMetricsRegistry} is enabled, statistic of freezing is collected
+ * for the name of the screen.
  */
 public class MvpRxPresenter<V extends BaseView> extends MvpPresenter<V> {
 
     private final CompositeSubscription subscriptions = new CompositeSubscription();
-    private final BehaviorSubject<Boolean> freezeSelector = BehaviorSubject.create(false);
+    private final AtomicInteger activeSubscriptionsCount = new AtomicInteger();
+    /**
+     * running requests, subscribed with key, guarded by itself
+     */
+    private final Map<String, KeyedRequest<?>> keyedRequests = new HashMap<>();
+    private final FreezeGate freezeGate = new FreezeGate(false);
+    /**
+     * frozen only when view is detached, used for high priority events and {@link FreezePolicy#ON_DETACH}
+     */
+    private final FreezeGate viewFreezeGate = new FreezeGate(false);
+    private final FreezeGate pauseFreezeGate = new FreezeGate(false);
+    private final FreezeGate stopFreezeGate = new FreezeGate(false);
     private boolean freezeEventsOnPause = true;
+    private Scheduler unfreezeDrainScheduler;
+    private int maxUnfreezeEventsPerSlice;
+    private long maxUnfreezeSliceTimeNanos;
+    private String screenName;
+    private FreezeSequencer freezeSequencer;
+
+    @CallSuper
+    @Override
+    public void attachView(V view) {
+        super.attachView(view);
+        screenName = view.getName();
+    }
 
     /**
      * This method is called, when view is ready
@@ -64,31 +122,53 @@ public class MvpRxPresenter<V extends BaseView> extends MvpPresenter<V> {
     @Override
     public void onLoadFinished() {
         super.onLoadFinished();
-        freezeSelector.onNext(false);
+        viewFreezeGate.setFrozen(false);
+        stopFreezeGate.setFrozen(false);
+        pauseFreezeGate.setFrozen(false);
+        freezeGate.setFrozen(false);
+    }
+
+    @CallSuper
+    @Override
+    public void onStart() {
+        super.onStart();
+        stopFreezeGate.setFrozen(false);
     }
 
     @CallSuper
     @Override
     public void onResume() {
         super.onResume();
-        freezeSelector.onNext(false);
+        pauseFreezeGate.setFrozen(false);
+        freezeGate.setFrozen(false);
     }
 
     @CallSuper
     @Override
     public void onPause() {
         super.onPause();
+        pauseFreezeGate.setFrozen(true);
         if(freezeEventsOnPause) {
-            freezeSelector.onNext(true);
+            freezeGate.setFrozen(true);
         }
     }
 
+    @CallSuper
+    @Override
+    public void onStop() {
+        super.onStop();
+        stopFreezeGate.setFrozen(true);
+    }
+
 
     @CallSuper
     @Override
     protected void onViewDetached() {
         super.onViewDetached();
-        freezeSelector.onNext(true);
+        freezeGate.setFrozen(true);
+        pauseFreezeGate.setFrozen(true);
+        stopFreezeGate.setFrozen(true);
+        viewFreezeGate.setFrozen(true);
     }
 
     @CallSuper
@@ -96,6 +176,9 @@ public class MvpRxPresenter<V extends BaseView> extends MvpPresenter<V> {
     public void onDestroy() {
         super.onDestroy();
         subscriptions.unsubscribe();
+        if (freezeSequencer != null) {
+            freezeSequencer.clear();
+        }
     }
 
     /**
@@ -108,29 +191,67 @@ public class MvpRxPresenter<V extends BaseView> extends MvpPresenter<V> {
         this.freezeEventsOnPause = enabled;
     }
 
+    /**
+     * If drainScheduler is set, events, which were frozen, would be emitted on drainScheduler
+     * split on slices, instead of emitting all events synchronously when screen resumed.
+     * This option is applied for subscriptions, which are created after calling this method.
+     * Default disabled.
+     * @param drainScheduler - scheduler for emitting frozen events (usually main thread scheduler),
+     *                       if null, frozen events are emitted synchronously
+     * @param maxEventsPerSlice - max num of events, emitted in one slice
+     * @param maxSliceTime - max duration of one slice
+     * @see OperatorFreeze.Builder#drainOn(Scheduler, int, long, TimeUnit)
+     */
+    public void setUnfreezeDrainScheduler(Scheduler drainScheduler,
+                                          int maxEventsPerSlice,
+                                          long maxSliceTime,
+                                          TimeUnit unit) {
+        this.unfreezeDrainScheduler = drainScheduler;
+        this.maxUnfreezeEventsPerSlice = maxEventsPerSlice;
+        this.maxUnfreezeSliceTimeNanos = unit.toNanos(maxSliceTime);
+    }
+
+    /**
+     * Enable one ordered queue of frozen events for all subscriptions, created via
+     * subscribeOrdered methods, so after unfreezing events of different subscriptions are emitted
+     * in the same order, as they were received, in one task on drainScheduler.
+     * Can be called only once, before first subscribeOrdered call.
+     * Default disabled.
+     * @param drainScheduler - scheduler for emitting frozen events (usually main thread scheduler),
+     *                       if null, frozen events are emitted synchronously
+     * @see FreezeSequencer
+     */
+    public void setOrderedFreezeEnabled(Scheduler drainScheduler) {
+        if (freezeSequencer != null) {
+            throw new IllegalStateException("ordered freeze is already enabled");
+        }
+        freezeSequencer = new FreezeSequencer(drainScheduler);
+        subscriptions.add(freezeSequencer.bindTo(freezeGate));
+    }
+
     /**
      * Apply {@link OperatorFreeze} and subscribe subscriber to the observable.
      * When screen finally destroyed, all subscriptions would be automatically unsubscribed.
      * For more information see description of this class.
+     * @param operator - operator, created by one of createOperatorFreeze methods
      * @return subscription
      */
-    private <T> Subscription subscribe(final Observable<T> observable,
-                                       final OperatorFreeze<T> operator,
-                                       final Subscriber<T> subscriber) {
-        Subscription subscription = observable
+    protected <T> Subscription subscribe(final Observable<T> observable,
+                                         final OperatorFreeze<T> operator,
+                                         final Subscriber<T> subscriber) {
+        addAutoRemoved(subscriber);
+        return observable
                 .lift(operator)
                 .subscribe(subscriber);
-        subscriptions.add(subscription);
-        return subscription;
     }
 
     /**
      * @see #subscribe(Observable, OperatorFreeze, Subscriber)
      */
-    private <T> Subscription subscribe(final Observable<T> observable,
-                                       final OperatorFreeze<T> operator,
-                                       final Action1<T> onNext,
-                                       final Action1<Throwable> onError) {
+    protected <T> Subscription subscribe(final Observable<T> observable,
+                                         final OperatorFreeze<T> operator,
+                                         final Action1<T> onNext,
+                                         final Action1<Throwable> onError) {
         return subscribe(observable, operator,
                 new Subscriber<T>() {
                     @Override
@@ -150,6 +271,154 @@ public class MvpRxPresenter<V extends BaseView> extends MvpPresenter<V> {
                 });
     }
 
+    /**
+     * Subscribe subscriber to the observable, events are frozen according to freezePolicy
+     * instead of option freezeEventOnPause, for {@link FreezePolicy#NEVER} operator isn't applied.
+     * When screen finally destroyed, all subscriptions would be automatically unsubscribed.
+     * @param bufferFactory - strategy of freeze buffer, see {@link FreezeBuffers}
+     * @return subscription
+     */
+    protected <T> Subscription subscribe(final Observable<T> observable,
+                                         final FreezePolicy freezePolicy,
+                                         final FreezeBuffer.Factory<T> bufferFactory,
+                                         final Subscriber<T> subscriber) {
+        if (freezePolicy == FreezePolicy.NEVER) {
+            return subscribeWithoutFreezing(observable, subscriber);
+        }
+        return subscribe(observable,
+                this.<T>createOperatorFreezeBuilder(freezePolicy).bufferFactory(bufferFactory).build(),
+                subscriber);
+    }
+
+    /**
+     * @see #subscribe(Observable, FreezePolicy, FreezeBuffer.Factory, Subscriber)
+     */
+    protected <T> Subscription subscribe(final Observable<T> observable,
+                                         final FreezePolicy freezePolicy,
+                                         final FreezeBuffer.Factory<T> bufferFactory,
+                                         final Action1<T> onNext,
+                                         final Action1<Throwable> onError) {
+        if (freezePolicy == FreezePolicy.NEVER) {
+            return subscribeWithoutFreezing(observable, onNext, onError);
+        }
+        return subscribe(observable,
+                this.<T>createOperatorFreezeBuilder(freezePolicy).bufferFactory(bufferFactory).build(),
+                onNext, onError);
+    }
+
+    /**
+     * @see #subscribe(Observable, FreezePolicy, FreezeBuffer.Factory, Subscriber)
+     */
+    protected <T> Subscription subscribe(final Observable<T> observable,
+                                         final FreezePolicy freezePolicy,
+                                         final Subscriber<T> subscriber) {
+        return subscribe(observable, freezePolicy, FreezeBuffers.<T>appendOnly(), subscriber);
+    }
+
+    /**
+     * @see #subscribe(Observable, FreezePolicy, FreezeBuffer.Factory, Subscriber)
+     */
+    protected <T> Subscription subscribe(final Observable<T> observable,
+                                         final FreezePolicy freezePolicy,
+                                         final Action1<T> onNext,
+                                         final Action1<Throwable> onError) {
+        return subscribe(observable, freezePolicy, FreezeBuffers.<T>appendOnly(), onNext, onError);
+    }
+
+    /**
+     * Apply {@link OperatorFreeze} and subscribe subscriber to the observable, if there is no
+     * running request with the same key, otherwise act according to inFlightPolicy.
+     * Request is running until observable terminates or all its subscribers are unsubscribed.
+     * Key must be used only for observables with the same type of events.
+     * When screen finally destroyed, all subscriptions would be automatically unsubscribed.
+     * @param key - key of request, e.g. "loadBooks"
+     * @param inFlightPolicy - defines, what to do, if request with the key is running
+     * @return subscription, for {@link InFlightPolicy#IGNORE} unsubscribed subscription is returned,
+     * if request with the key is running, so caller can't unsubscribe subscribers of that request
+     */
+    protected <T> Subscription subscribe(final String key,
+                                         final Observable<T> observable,
+                                         final InFlightPolicy inFlightPolicy,
+                                         final Subscriber<T> subscriber) {
+        KeyedRequest<T> request;
+        KeyedRequest<?> switchedRequest = null;
+        //subscriber is only registered under the lock, source and callbacks of subscriber
+        //are called outside of it
+        synchronized (keyedRequests) {
+            @SuppressWarnings("unchecked")
+            KeyedRequest<T> runningRequest = (KeyedRequest<T>) keyedRequests.get(key);
+            request = runningRequest;
+            if (request != null) {
+                switch (inFlightPolicy) {
+                    case IGNORE:
+                        return Subscriptions.unsubscribed();
+                    case SWITCH:
+                        keyedRequests.remove(key);
+                        switchedRequest = request;
+                        request = null;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (request == null) {
+                request = new KeyedRequest<>(key, observable);
+                keyedRequests.put(key, request);
+            }
+            request.subscribersCount++;
+        }
+        if (switchedRequest != null) {
+            switchedRequest.subscriptions.unsubscribe();
+        }
+        final KeyedRequest<T> subscribedRequest = request;
+        subscriber.add(Subscriptions.create(new Action0() {
+            @Override
+            public void call() {
+                subscribedRequest.release();
+            }
+        }));
+        Subscription subscription = subscribe(request.observable,
+                this.<T>createOperatorFreeze(), subscriber);
+        request.subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * @see #subscribe(String, Observable, InFlightPolicy, Subscriber)
+     */
+    protected <T> Subscription subscribe(final String key,
+                                         final Observable<T> observable,
+                                         final InFlightPolicy inFlightPolicy,
+                                         final Action1<T> onNext,
+                                         final Action1<Throwable> onError) {
+        return subscribe(key, observable, inFlightPolicy, new Subscriber<T>() {
+            @Override
+            public void onCompleted() {
+                // do nothing
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                onError.call(e);
+            }
+
+            @Override
+            public void onNext(T t) {
+                onNext.call(t);
+            }
+        });
+    }
+
+    /**
+     * @return true, if request, subscribed with the key, is running
+     * @see #subscribe(String, Observable, InFlightPolicy, Subscriber)
+     */
+    protected boolean isRequestInFlight(String key) {
+        synchronized (keyedRequests) {
+            return keyedRequests.containsKey(key);
+        }
+    }
+
     /**
      * @see #subscribe(Observable, OperatorFreeze, Subscriber)
      * @param replaceFrozenEventPredicate - used for reduce num element in freeze buffer
@@ -175,6 +444,54 @@ public class MvpRxPresenter<V extends BaseView> extends MvpPresenter<V> {
         return subscribe(observable, createOperatorFreeze(replaceFrozenEventPredicate), onNext, onError);
     }
 
+    /**
+     * @see #subscribe(Observable, OperatorFreeze, Subscriber)
+     * @param bufferFactory - strategy of freeze buffer, see {@link FreezeBuffers}
+     */
+    protected <T> Subscription subscribe(final Observable<T> observable,
+                                         final FreezeBuffer.Factory<T> bufferFactory,
+                                         final Subscriber<T> subscriber) {
+
+        return subscribe(observable, createOperatorFreeze(bufferFactory), subscriber);
+    }
+
+    /**
+     * @see #subscribe(Observable, OperatorFreeze, Subscriber)
+     * @param bufferFactory - strategy of freeze buffer, see {@link FreezeBuffers}
+     */
+    protected <T> Subscription subscribe(final Observable<T> observable,
+                                         final FreezeBuffer.Factory<T> bufferFactory,
+                                         final Action1<T> onNext,
+                                         final Action1<Throwable> onError) {
+
+        return subscribe(observable, createOperatorFreeze(bufferFactory), onNext, onError);
+    }
+
+    /**
+     * @see #subscribe(Observable, OperatorFreeze, Subscriber)
+     * @param maxEventAge - frozen events, which are older, would be dropped,
+     *                    so they aren't emitted when screen resumed after long time
+     */
+    protected <T> Subscription subscribe(final Observable<T> observable,
+                                         final long maxEventAge,
+                                         final TimeUnit unit,
+                                         final Subscriber<T> subscriber) {
+
+        return subscribe(observable, this.<T>createOperatorFreeze(maxEventAge, unit), subscriber);
+    }
+
+    /**
+     * @see #subscribe(Observable, long, TimeUnit, Subscriber)
+     */
+    protected <T> Subscription subscribe(final Observable<T> observable,
+                                         final long maxEventAge,
+                                         final TimeUnit unit,
+                                         final Action1<T> onNext,
+                                         final Action1<Throwable> onError) {
+
+        return subscribe(observable, this.<T>createOperatorFreeze(maxEventAge, unit), onNext, onError);
+    }
+
     /**
      * @see @link #subscribe(Observable, OperatorFreeze, Subscriber)
      */
@@ -194,6 +511,168 @@ public class MvpRxPresenter<V extends BaseView> extends MvpPresenter<V> {
         return subscribe(observable, this.<T>createOperatorFreeze(), onNext, onError);
     }
 
+    /**
+     * Apply {@link OperatorFreeze} with priority lanes and subscribe subscriber to the observable.
+     * Frozen high priority events (e.g. result of loading) are emitted before other frozen events.
+     * @param highPriorityClassifier - return true, if event has high priority
+     * @param highPriorityIgnoresPause - if true, high priority events are emitted when screen
+     *                                 is paused, but view isn't destroyed
+     * @see #subscribe(Observable, OperatorFreeze, Subscriber)
+     */
+    protected <T> Subscription subscribePrioritized(final Observable<T> observable,
+                                                    final Func1<? super T, Boolean> highPriorityClassifier,
+                                                    final boolean highPriorityIgnoresPause,
+                                                    final Subscriber<T> subscriber) {
+
+        return subscribe(observable,
+                this.<T>createOperatorFreezePrioritized(highPriorityClassifier, highPriorityIgnoresPause),
+                subscriber);
+    }
+
+    /**
+     * @see #subscribePrioritized(Observable, Func1, boolean, Subscriber)
+     */
+    protected <T> Subscription subscribePrioritized(final Observable<T> observable,
+                                                    final Func1<? super T, Boolean> highPriorityClassifier,
+                                                    final boolean highPriorityIgnoresPause,
+                                                    final Action1<T> onNext,
+                                                    final Action1<Throwable> onError) {
+
+        return subscribe(observable,
+                this.<T>createOperatorFreezePrioritized(highPriorityClassifier, highPriorityIgnoresPause),
+                onNext, onError);
+    }
+
+    /**
+     * Apply {@link OperatorFreezeSingle} and subscribe subscriber to the single.
+     * Value or error would be frozen when screen paused or view destroyed and emitted
+     * when view resumed or recreated, freeze buffer isn't created.
+     * When screen finally destroyed, all subscriptions would be automatically unsubscribed.
+     * @return subscription
+     */
+    protected <T> Subscription subscribe(final Single<T> single,
+                                         final Subscriber<T> subscriber) {
+        addAutoRemoved(subscriber);
+        return single
+                .lift(this.<T>createOperatorFreezeSingle())
+                .subscribe(subscriber);
+    }
+
+    /**
+     * @see #subscribe(Single, Subscriber)
+     */
+    protected <T> Subscription subscribe(final Single<T> single,
+                                         final Action1<T> onSuccess,
+                                         final Action1<Throwable> onError) {
+        return subscribe(single, new Subscriber<T>() {
+            @Override
+            public void onCompleted() {
+                // do nothing
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                onError.call(e);
+            }
+
+            @Override
+            public void onNext(T t) {
+                onSuccess.call(t);
+            }
+        });
+    }
+
+    /**
+     * Apply {@link OperatorFreezeCompletable} and subscribe to the completable.
+     * Completion or error would be frozen when screen paused or view destroyed and emitted
+     * when view resumed or recreated.
+     * When screen finally destroyed, all subscriptions would be automatically unsubscribed.
+     * @return subscription
+     */
+    protected Subscription subscribe(final Completable completable,
+                                     final Action0 onCompleted,
+                                     final Action1<Throwable> onError) {
+        Subscriber<Object> subscriber = new SafeSubscriber<>(new Subscriber<Object>() {
+            @Override
+            public void onCompleted() {
+                onCompleted.call();
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                onError.call(e);
+            }
+
+            @Override
+            public void onNext(Object o) {
+                // do nothing
+            }
+        });
+        addAutoRemoved(subscriber);
+        completable
+                .lift(createOperatorFreezeCompletable())
+                .subscribe(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Apply {@link OperatorOrderedFreeze} and subscribe subscriber to the observable.
+     * Frozen events of all such subscriptions are emitted in order of arrival,
+     * see {@link #setOrderedFreezeEnabled(Scheduler)}.
+     * If ordered freeze isn't enabled, works as {@link #subscribe(Observable, Subscriber)}.
+     * @return subscription
+     */
+    protected <T> Subscription subscribeOrdered(final Observable<T> observable,
+                                                final Subscriber<T> subscriber) {
+        if (freezeSequencer == null) {
+            return subscribe(observable, subscriber);
+        }
+        return subscribeWithoutFreezing(observable.lift(this.<T>createOperatorOrderedFreeze()),
+                subscriber);
+    }
+
+    /**
+     * @see #subscribeOrdered(Observable, Subscriber)
+     */
+    protected <T> Subscription subscribeOrdered(final Observable<T> observable,
+                                                final Action1<T> onNext,
+                                                final Action1<Throwable> onError) {
+        if (freezeSequencer == null) {
+            return subscribe(observable, onNext, onError);
+        }
+        return subscribeWithoutFreezing(observable.lift(this.<T>createOperatorOrderedFreeze()),
+                onNext, onError);
+    }
+
+    /**
+     * Apply {@link TransformerFreezeUpstream} and subscribe subscriber to the observable.
+     * Instead of freezing events, observable is unsubscribed when screen paused or view destroyed,
+     * and subscribed again when view resumed or recreated, so it should fetch fresh data
+     * on each subscription.
+     * When screen finally destroyed, all subscriptions would be automatically unsubscribed.
+     * @param emitLastValueOnResume - emit last event of observable again after resuming
+     * @return subscription
+     */
+    protected <T> Subscription subscribeFreezingUpstream(final Observable<T> observable,
+                                                         final boolean emitLastValueOnResume,
+                                                         final Subscriber<T> subscriber) {
+
+        return subscribeWithoutFreezing(observable.compose(
+                this.<T>createTransformerFreezeUpstream(emitLastValueOnResume)), subscriber);
+    }
+
+    /**
+     * @see #subscribeFreezingUpstream(Observable, boolean, Subscriber)
+     */
+    protected <T> Subscription subscribeFreezingUpstream(final Observable<T> observable,
+                                                         final boolean emitLastValueOnResume,
+                                                         final Action1<T> onNext,
+                                                         final Action1<Throwable> onError) {
+
+        return subscribeWithoutFreezing(observable.compose(
+                this.<T>createTransformerFreezeUpstream(emitLastValueOnResume)), onNext, onError);
+    }
+
     /**
      * Subscribe subscriber to the observable without applying {@link OperatorFreeze}
      * When screen finally destroyed, all subscriptions would be automatically unsubscribed.
@@ -202,10 +681,9 @@ public class MvpRxPresenter<V extends BaseView> extends MvpPresenter<V> {
     protected <T> Subscription subscribeWithoutFreezing(final Observable<T> observable,
                                                         final Subscriber<T> subscriber) {
 
-        Subscription subscription = observable
+        addAutoRemoved(subscriber);
+        return observable
                 .subscribe(subscriber);
-        subscriptions.add(subscription);
-        return subscription;
     }
 
     /**
@@ -234,15 +712,319 @@ public class MvpRxPresenter<V extends BaseView> extends MvpPresenter<V> {
     }
 
 
+    /**
+     * Apply {@link OperatorFreezeBatch} and subscribe subscriber to the observable.
+     * All events, which were frozen, would be emitted as one list when view resumed or recreated,
+     * so subscriber can handle them at once, other events are emitted as lists with one element.
+     * When screen finally destroyed, all subscriptions would be automatically unsubscribed.
+     * @param bufferFactory - strategy of freeze buffer, see {@link FreezeBuffers}
+     * @return subscription
+     */
+    protected <T> Subscription subscribeBatched(final Observable<T> observable,
+                                                final FreezeBuffer.Factory<T> bufferFactory,
+                                                final Subscriber<List<T>> subscriber) {
+
+        return subscribeWithoutFreezing(observable.lift(createOperatorFreezeBatch(bufferFactory)),
+                subscriber);
+    }
+
+    /**
+     * @see #subscribeBatched(Observable, FreezeBuffer.Factory, Subscriber)
+     */
+    protected <T> Subscription subscribeBatched(final Observable<T> observable,
+                                                final FreezeBuffer.Factory<T> bufferFactory,
+                                                final Action1<List<T>> onNext,
+                                                final Action1<Throwable> onError) {
+
+        return subscribeWithoutFreezing(observable.lift(createOperatorFreezeBatch(bufferFactory)),
+                onNext, onError);
+    }
+
+    /**
+     * @see #subscribeBatched(Observable, FreezeBuffer.Factory, Subscriber)
+     */
+    protected <T> Subscription subscribeBatched(final Observable<T> observable,
+                                                final Subscriber<List<T>> subscriber) {
+
+        return subscribeBatched(observable, FreezeBuffers.<T>appendOnly(), subscriber);
+    }
+
+    /**
+     * @see #subscribeBatched(Observable, FreezeBuffer.Factory, Subscriber)
+     */
+    protected <T> Subscription subscribeBatched(final Observable<T> observable,
+                                                final Action1<List<T>> onNext,
+                                                final Action1<Throwable> onError) {
+
+        return subscribeBatched(observable, FreezeBuffers.<T>appendOnly(), onNext, onError);
+    }
+
+    /**
+     * Apply {@link OperatorFreezeReduce} and subscribe subscriber to the observable.
+     * Events are folded into state by accumulator, subscriber receives new state after each event,
+     * but while screen is paused or view is destroyed, only the last state is kept and it is
+     * emitted when view resumed or recreated.
+     * When screen finally destroyed, all subscriptions would be automatically unsubscribed.
+     * @param seedFactory - create initial state, initial state isn't emitted
+     * @param accumulator - return new state from previous state and event
+     * @return subscription
+     */
+    protected <T, R> Subscription subscribeReduced(final Observable<T> observable,
+                                                   final Func0<R> seedFactory,
+                                                   final Func2<R, ? super T, R> accumulator,
+                                                   final Subscriber<R> subscriber) {
+
+        return subscribeWithoutFreezing(
+                observable.lift(createOperatorFreezeReduce(seedFactory, accumulator)),
+                subscriber);
+    }
+
+    /**
+     * @see #subscribeReduced(Observable, Func0, Func2, Subscriber)
+     */
+    protected <T, R> Subscription subscribeReduced(final Observable<T> observable,
+                                                   final Func0<R> seedFactory,
+                                                   final Func2<R, ? super T, R> accumulator,
+                                                   final Action1<R> onNext,
+                                                   final Action1<Throwable> onError) {
+
+        return subscribeWithoutFreezing(
+                observable.lift(createOperatorFreezeReduce(seedFactory, accumulator)),
+                onNext, onError);
+    }
+
     protected <T> OperatorFreeze<T> createOperatorFreeze(Func2<T, T, Boolean> replaceFrozenEventPredicate) {
-        return new OperatorFreeze<>(freezeSelector, replaceFrozenEventPredicate);
+        return createOperatorFreeze(FreezeBuffers.replacing(replaceFrozenEventPredicate));
+    }
+
+    protected <T> OperatorFreeze<T> createOperatorFreeze(FreezeBuffer.Factory<T> bufferFactory) {
+        return this.<T>createOperatorFreezeBuilder()
+                .bufferFactory(bufferFactory)
+                .build();
+    }
+
+    /**
+     * Create {@link OperatorFreeze} with limited freeze buffer,
+     * it prevents growing of buffer when presenter is in background for a long time
+     * @param capacity - max num of frozen events
+     * @param overflowPolicy - defines what happens, when event is added to the full buffer
+     */
+    protected <T> OperatorFreeze<T> createOperatorFreeze(int capacity,
+                                                         BufferOverflowPolicy overflowPolicy) {
+        return createOperatorFreeze(FreezeBuffers.<T>bounded(capacity, overflowPolicy));
+    }
+
+    /**
+     * @see #createOperatorFreeze(int, BufferOverflowPolicy)
+     * @param bufferFactory - strategy of freeze buffer, see {@link FreezeBuffers}
+     */
+    protected <T> OperatorFreeze<T> createOperatorFreeze(FreezeBuffer.Factory<T> bufferFactory,
+                                                         int capacity,
+                                                         BufferOverflowPolicy overflowPolicy) {
+        return createOperatorFreeze(FreezeBuffers.bounded(bufferFactory, capacity, overflowPolicy));
+    }
+
+    /**
+     * Create {@link OperatorFreeze}, which drops frozen events older than maxEventAge
+     * @see FreezeBuffers#expiring(long, TimeUnit)
+     */
+    protected <T> OperatorFreeze<T> createOperatorFreeze(long maxEventAge, TimeUnit unit) {
+        return createOperatorFreeze(FreezeBuffers.<T>expiring(maxEventAge, unit));
+    }
+
+    /**
+     * @see #subscribePrioritized(Observable, Func1, boolean, Subscriber)
+     */
+    protected <T> OperatorFreeze<T> createOperatorFreezePrioritized(
+            Func1<? super T, Boolean> highPriorityClassifier,
+            boolean highPriorityIgnoresPause) {
+        return this.<T>createOperatorFreezeBuilder()
+                .priority(highPriorityClassifier, highPriorityIgnoresPause ? viewFreezeGate : null)
+                .build();
     }
 
     protected <T> OperatorFreeze<T> createOperatorFreeze() {
-        return new OperatorFreeze<>(freezeSelector);
+        return this.<T>createOperatorFreezeBuilder().build();
+    }
+
+    /**
+     * @return builder of {@link OperatorFreeze}, which is bound to the lifecycle of this presenter
+     * and configured with options of this presenter
+     * (see {@link #setUnfreezeDrainScheduler(Scheduler, int, long, TimeUnit)}, {@link FreezeMetricsRegistry})
+     */
+    protected <T> OperatorFreeze.Builder<T> createOperatorFreezeBuilder() {
+        return createOperatorFreezeBuilder(freezeGate);
+    }
+
+    /**
+     * @return builder of {@link OperatorFreeze}, which is frozen according to freezePolicy
+     * @see #createOperatorFreezeBuilder()
+     */
+    protected <T> OperatorFreeze.Builder<T> createOperatorFreezeBuilder(FreezePolicy freezePolicy) {
+        return createOperatorFreezeBuilder(getFreezeGate(freezePolicy));
+    }
+
+    private <T> OperatorFreeze.Builder<T> createOperatorFreezeBuilder(FreezeGate gate) {
+        OperatorFreeze.Builder<T> builder = new OperatorFreeze.Builder<>(gate);
+        if (unfreezeDrainScheduler != null) {
+            builder.drainOn(unfreezeDrainScheduler, maxUnfreezeEventsPerSlice,
+                    maxUnfreezeSliceTimeNanos, TimeUnit.NANOSECONDS);
+        }
+        if (FreezeMetricsRegistry.isEnabled()) {
+            builder.metricsListener(FreezeMetricsRegistry.createListener(
+                    screenName != null ? screenName : getClass().getName()));
+        }
+        return builder;
+    }
+
+    /**
+     * @return gate, which holds freeze state of this presenter, all operators created by
+     * createOperatorFreeze methods are bound to it
+     */
+    protected FreezeGate getFreezeGate() {
+        return freezeGate;
+    }
+
+    /**
+     * @return gate, which is frozen according to freezePolicy
+     * @throws IllegalArgumentException for {@link FreezePolicy#NEVER}
+     */
+    protected FreezeGate getFreezeGate(FreezePolicy freezePolicy) {
+        switch (freezePolicy) {
+            case ON_PAUSE:
+                return pauseFreezeGate;
+            case ON_STOP:
+                return stopFreezeGate;
+            case ON_DETACH:
+                return viewFreezeGate;
+            default:
+                throw new IllegalArgumentException("events aren't frozen with policy " + freezePolicy);
+        }
+    }
+
+    /**
+     * @return operator, bound to the ordered queue of this presenter,
+     * ordered freeze must be enabled (see {@link #setOrderedFreezeEnabled(Scheduler)})
+     */
+    protected <T> OperatorOrderedFreeze<T> createOperatorOrderedFreeze() {
+        if (freezeSequencer == null) {
+            throw new IllegalStateException("ordered freeze isn't enabled");
+        }
+        return new OperatorOrderedFreeze<>(freezeSequencer);
+    }
+
+    protected <T> TransformerFreezeUpstream<T> createTransformerFreezeUpstream(
+            boolean emitLastValueOnResume) {
+        return new TransformerFreezeUpstream<>(freezeGate, emitLastValueOnResume);
+    }
+
+    protected <T> OperatorFreezeSingle<T> createOperatorFreezeSingle() {
+        return new OperatorFreezeSingle<>(freezeGate);
+    }
+
+    protected OperatorFreezeCompletable createOperatorFreezeCompletable() {
+        return new OperatorFreezeCompletable(freezeGate);
+    }
+
+    protected <T> OperatorFreezeBatch<T> createOperatorFreezeBatch(
+            FreezeBuffer.Factory<T> bufferFactory) {
+        return new OperatorFreezeBatch<>(this.<List<T>>createOperatorFreezeBuilder(), bufferFactory);
+    }
+
+    protected <T, R> OperatorFreezeReduce<T, R> createOperatorFreezeReduce(
+            Func0<R> seedFactory,
+            Func2<R, ? super T, R> accumulator) {
+        return new OperatorFreezeReduce<>(this.<R>createOperatorFreezeBuilder(), seedFactory,
+                accumulator);
+    }
+
+    /**
+     * @return num of subscriptions of this presenter, which are not finished or unsubscribed yet
+     * (for debugging)
+     */
+    public int getActiveSubscriptionsCount() {
+        return activeSubscriptionsCount.get();
+    }
+
+    /**
+     * Add subscriber to subscriptions of presenter,
+     * it is removed from them, when it is finished or unsubscribed
+     */
+    private void addAutoRemoved(final Subscriber<?> subscriber) {
+        activeSubscriptionsCount.incrementAndGet();
+        subscriber.add(Subscriptions.create(new Action0() {
+            @Override
+            public void call() {
+                activeSubscriptionsCount.decrementAndGet();
+                subscriptions.remove(subscriber);
+            }
+        }));
+        subscriptions.add(subscriber);
     }
 
     protected boolean isSubscriptionInactive(Subscription subscription) {
         return subscription == null || subscription.isUnsubscribed();
     }
+
+    /**
+     * Request, which is subscribed with the key, its events are shared between subscribers.
+     * Source is subscribed only once, subscriber, which joins the request, receives the last
+     * event of request, even if request has already terminated.
+     * Request is unsubscribed from source, when all its subscribers are unsubscribed.
+     */
+    private final class KeyedRequest<T> {
+
+        private final String key;
+        private final Observable<T> observable;
+        /**
+         * subscriptions of subscribers and connection to source
+         */
+        private final CompositeSubscription subscriptions = new CompositeSubscription();
+        /**
+         * guarded by keyedRequests
+         */
+        private int subscribersCount;
+
+        KeyedRequest(String key, Observable<T> source) {
+            this.key = key;
+            this.observable = source
+                    .doOnTerminate(new Action0() {
+                        @Override
+                        public void call() {
+                            finish();
+                        }
+                    })
+                    .replay(1)
+                    .autoConnect(1, new Action1<Subscription>() {
+                        @Override
+                        public void call(Subscription connection) {
+                            subscriptions.add(connection);
+                        }
+                    });
+        }
+
+        /**
+         * Called when subscriber is unsubscribed
+         */
+        private void release() {
+            boolean lastSubscriber;
+            synchronized (keyedRequests) {
+                lastSubscriber = --subscribersCount == 0;
+                if (lastSubscriber && keyedRequests.get(key) == this) {
+                    keyedRequests.remove(key);
+                }
+            }
+            if (lastSubscriber) {
+                subscriptions.unsubscribe();
+            }
+        }
+
+        private void finish() {
+            synchronized (keyedRequests) {
+                if (keyedRequests.get(key) == this) {
+                    keyedRequests.remove(key);
+                }
+            }
+        }
+    }
 }
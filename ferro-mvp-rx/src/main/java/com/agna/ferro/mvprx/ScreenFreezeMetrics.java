@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.mvprx;
+
+import com.agna.ferro.rx.FreezeCycleMetrics;
+
+/**
+ * Aggregated statistic of freeze cycles of all subscriptions of screens with the same name
+ * @see FreezeMetricsRegistry
+ */
+public final class ScreenFreezeMetrics {
+
+    private final String screenName;
+    private long cycles;
+    private long bufferedEvents;
+    private long coalescedEvents;
+    private int peakBufferSize;
+    private long frozenTimeNanos;
+    private long drainTimeNanos;
+    private long maxDrainTimeNanos;
+
+    ScreenFreezeMetrics(String screenName) {
+        this.screenName = screenName;
+    }
+
+    private ScreenFreezeMetrics(ScreenFreezeMetrics metrics) {
+        this.screenName = metrics.screenName;
+        this.cycles = metrics.cycles;
+        this.bufferedEvents = metrics.bufferedEvents;
+        this.coalescedEvents = metrics.coalescedEvents;
+        this.peakBufferSize = metrics.peakBufferSize;
+        this.frozenTimeNanos = metrics.frozenTimeNanos;
+        this.drainTimeNanos = metrics.drainTimeNanos;
+        this.maxDrainTimeNanos = metrics.maxDrainTimeNanos;
+    }
+
+    synchronized void add(FreezeCycleMetrics metrics) {
+        cycles++;
+        bufferedEvents += metrics.getBufferedEvents();
+        coalescedEvents += metrics.getCoalescedEvents();
+        peakBufferSize = Math.max(peakBufferSize, metrics.getPeakBufferSize());
+        frozenTimeNanos += metrics.getFrozenTimeNanos();
+        drainTimeNanos += metrics.getDrainTimeNanos();
+        maxDrainTimeNanos = Math.max(maxDrainTimeNanos, metrics.getDrainTimeNanos());
+    }
+
+    synchronized ScreenFreezeMetrics copy() {
+        return new ScreenFreezeMetrics(this);
+    }
+
+    public String getScreenName() {
+        return screenName;
+    }
+
+    /**
+     * @return num of finished freeze cycles of all subscriptions
+     */
+    public long getCycles() {
+        return cycles;
+    }
+
+    public long getBufferedEvents() {
+        return bufferedEvents;
+    }
+
+    /**
+     * @return num of events, which were removed from freeze buffers without emitting
+     */
+    public long getCoalescedEvents() {
+        return coalescedEvents;
+    }
+
+    /**
+     * @return max size of freeze buffer of one subscription
+     */
+    public int getPeakBufferSize() {
+        return peakBufferSize;
+    }
+
+    /**
+     * @return sum of frozen time of all subscriptions
+     */
+    public long getFrozenTimeNanos() {
+        return frozenTimeNanos;
+    }
+
+    /**
+     * @return sum of time of emitting of buffered events after unfreezing
+     */
+    public long getDrainTimeNanos() {
+        return drainTimeNanos;
+    }
+
+    public long getMaxDrainTimeNanos() {
+        return maxDrainTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ScreenFreezeMetrics{" +
+                "screenName='" + screenName + '\'' +
+                ", cycles=" + cycles +
+                ", bufferedEvents=" + bufferedEvents +
+                ", coalescedEvents=" + coalescedEvents +
+                ", peakBufferSize=" + peakBufferSize +
+                ", frozenTimeNanos=" + frozenTimeNanos +
+                ", drainTimeNanos=" + drainTimeNanos +
+                ", maxDrainTimeNanos=" + maxDrainTimeNanos +
+                '}';
+    }
+}
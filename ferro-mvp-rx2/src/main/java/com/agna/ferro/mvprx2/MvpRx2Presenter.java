@@ -0,0 +1,297 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.mvprx2;
+
+import android.support.annotation.CallSuper;
+
+import com.agna.ferro.mvp.presenter.MvpPresenter;
+import com.agna.ferro.mvp.view.BaseView;
+import com.agna.ferro.rx2.FlowableOperatorFreeze;
+import com.agna.ferro.rx2.FreezeBuffer;
+import com.agna.ferro.rx2.FreezeBuffers;
+import com.agna.ferro.rx2.FreezeGate;
+import com.agna.ferro.rx2.ObservableOperatorFreeze;
+
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.observers.DisposableObserver;
+import io.reactivex.subscribers.DisposableSubscriber;
+
+/**
+ * Presenter with freeze logic for RxJava2.
+ * If subscribe to {@link Flowable} or {@link Observable} via one of subscribe methods,
+ * all rx events (onNext, onError, onComplete) would be frozen when view destroyed and unfrozen
+ * when view recreated (see {@link FlowableOperatorFreeze}, {@link ObservableOperatorFreeze}).
+ *
+ * When screen finally destroyed, all subscriptions would be automatically disposed.
+ *
+ * When configuration changed, presenter isn't destroyed and reused for new view
+ *
+ * If option freezeEventOnPause enabled (see {@link #setFreezeOnPauseEnabled(boolean)}, all events
+ * would be also frozen when screen paused and unfrozen when screen resumed.
+ * If option freezeEventOnPause disabled, screen may handle event when it invisible
+ * (e.g. when Activity in back stack) and user can miss important information e.g. SnackBar
+ */
+public class MvpRx2Presenter<V extends BaseView> extends MvpPresenter<V> {
+
+    private final CompositeDisposable disposables = new CompositeDisposable();
+    private final FreezeGate freezeGate = new FreezeGate(false);
+    private boolean freezeEventsOnPause = true;
+
+    @CallSuper
+    @Override
+    public void onLoadFinished() {
+        super.onLoadFinished();
+        freezeGate.setFrozen(false);
+    }
+
+    @CallSuper
+    @Override
+    public void onResume() {
+        super.onResume();
+        freezeGate.setFrozen(false);
+    }
+
+    @CallSuper
+    @Override
+    public void onPause() {
+        super.onPause();
+        if (freezeEventsOnPause) {
+            freezeGate.setFrozen(true);
+        }
+    }
+
+    @CallSuper
+    @Override
+    protected void onViewDetached() {
+        super.onViewDetached();
+        freezeGate.setFrozen(true);
+    }
+
+    @CallSuper
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        disposables.dispose();
+    }
+
+    /**
+     * If true, all rx event would be frozen when screen paused, and unfrozen when screen resumed,
+     * otherwise event would be frozen when {@link #onViewDetached()} called.
+     * Default enabled.
+     */
+    public void setFreezeOnPauseEnabled(boolean enabled) {
+        this.freezeEventsOnPause = enabled;
+    }
+
+    /**
+     * Apply {@link FlowableOperatorFreeze} and subscribe subscriber to the flowable.
+     * When screen finally destroyed, all subscriptions would be automatically disposed.
+     * For more information see description of this class.
+     * @param operator - operator, created by {@link #createFlowableOperatorFreeze}
+     * @return disposable
+     */
+    protected <T> Disposable subscribe(final Flowable<T> flowable,
+                                       final FlowableOperatorFreeze<T> operator,
+                                       final DisposableSubscriber<T> subscriber) {
+        return subscribeWithoutFreezing(flowable.compose(operator), subscriber);
+    }
+
+    /**
+     * @see #subscribe(Flowable, FlowableOperatorFreeze, DisposableSubscriber)
+     */
+    protected <T> Disposable subscribe(final Flowable<T> flowable,
+                                       final FlowableOperatorFreeze<T> operator,
+                                       final Consumer<T> onNext,
+                                       final Consumer<Throwable> onError) {
+        return subscribeWithoutFreezing(flowable.compose(operator), onNext, onError);
+    }
+
+    /**
+     * @see #subscribe(Flowable, FlowableOperatorFreeze, DisposableSubscriber)
+     * @param bufferFactory - strategy of freeze buffer, see {@link FreezeBuffers}
+     */
+    protected <T> Disposable subscribe(final Flowable<T> flowable,
+                                       final FreezeBuffer.Factory<T> bufferFactory,
+                                       final DisposableSubscriber<T> subscriber) {
+        return subscribe(flowable, createFlowableOperatorFreeze(bufferFactory), subscriber);
+    }
+
+    /**
+     * @see #subscribe(Flowable, FlowableOperatorFreeze, DisposableSubscriber)
+     * @param bufferFactory - strategy of freeze buffer, see {@link FreezeBuffers}
+     */
+    protected <T> Disposable subscribe(final Flowable<T> flowable,
+                                       final FreezeBuffer.Factory<T> bufferFactory,
+                                       final Consumer<T> onNext,
+                                       final Consumer<Throwable> onError) {
+        return subscribe(flowable, createFlowableOperatorFreeze(bufferFactory), onNext, onError);
+    }
+
+    /**
+     * @see #subscribe(Flowable, FlowableOperatorFreeze, DisposableSubscriber)
+     */
+    protected <T> Disposable subscribe(final Flowable<T> flowable,
+                                       final DisposableSubscriber<T> subscriber) {
+        return subscribe(flowable, FreezeBuffers.<T>appendOnly(), subscriber);
+    }
+
+    /**
+     * @see #subscribe(Flowable, FlowableOperatorFreeze, DisposableSubscriber)
+     */
+    protected <T> Disposable subscribe(final Flowable<T> flowable,
+                                       final Consumer<T> onNext,
+                                       final Consumer<Throwable> onError) {
+        return subscribe(flowable, FreezeBuffers.<T>appendOnly(), onNext, onError);
+    }
+
+    /**
+     * Apply {@link ObservableOperatorFreeze} and subscribe observer to the observable.
+     * When screen finally destroyed, all subscriptions would be automatically disposed.
+     * For more information see description of this class.
+     * @param operator - operator, created by {@link #createObservableOperatorFreeze}
+     * @return disposable
+     */
+    protected <T> Disposable subscribe(final Observable<T> observable,
+                                       final ObservableOperatorFreeze<T> operator,
+                                       final DisposableObserver<T> observer) {
+        return subscribeWithoutFreezing(observable.compose(operator), observer);
+    }
+
+    /**
+     * @see #subscribe(Observable, ObservableOperatorFreeze, DisposableObserver)
+     */
+    protected <T> Disposable subscribe(final Observable<T> observable,
+                                       final ObservableOperatorFreeze<T> operator,
+                                       final Consumer<T> onNext,
+                                       final Consumer<Throwable> onError) {
+        return subscribeWithoutFreezing(observable.compose(operator), onNext, onError);
+    }
+
+    /**
+     * @see #subscribe(Observable, ObservableOperatorFreeze, DisposableObserver)
+     * @param bufferFactory - strategy of freeze buffer, see {@link FreezeBuffers}
+     */
+    protected <T> Disposable subscribe(final Observable<T> observable,
+                                       final FreezeBuffer.Factory<T> bufferFactory,
+                                       final DisposableObserver<T> observer) {
+        return subscribe(observable, createObservableOperatorFreeze(bufferFactory), observer);
+    }
+
+    /**
+     * @see #subscribe(Observable, ObservableOperatorFreeze, DisposableObserver)
+     * @param bufferFactory - strategy of freeze buffer, see {@link FreezeBuffers}
+     */
+    protected <T> Disposable subscribe(final Observable<T> observable,
+                                       final FreezeBuffer.Factory<T> bufferFactory,
+                                       final Consumer<T> onNext,
+                                       final Consumer<Throwable> onError) {
+        return subscribe(observable, createObservableOperatorFreeze(bufferFactory), onNext, onError);
+    }
+
+    /**
+     * @see #subscribe(Observable, ObservableOperatorFreeze, DisposableObserver)
+     */
+    protected <T> Disposable subscribe(final Observable<T> observable,
+                                       final DisposableObserver<T> observer) {
+        return subscribe(observable, FreezeBuffers.<T>appendOnly(), observer);
+    }
+
+    /**
+     * @see #subscribe(Observable, ObservableOperatorFreeze, DisposableObserver)
+     */
+    protected <T> Disposable subscribe(final Observable<T> observable,
+                                       final Consumer<T> onNext,
+                                       final Consumer<Throwable> onError) {
+        return subscribe(observable, FreezeBuffers.<T>appendOnly(), onNext, onError);
+    }
+
+    /**
+     * Subscribe subscriber to the flowable without freezing
+     * When screen finally destroyed, all subscriptions would be automatically disposed.
+     * @return disposable
+     */
+    protected <T> Disposable subscribeWithoutFreezing(final Flowable<T> flowable,
+                                                      final DisposableSubscriber<T> subscriber) {
+        Disposable disposable = flowable.subscribeWith(subscriber);
+        disposables.add(disposable);
+        return disposable;
+    }
+
+    /**
+     * @see #subscribeWithoutFreezing(Flowable, DisposableSubscriber)
+     */
+    protected <T> Disposable subscribeWithoutFreezing(final Flowable<T> flowable,
+                                                      final Consumer<T> onNext,
+                                                      final Consumer<Throwable> onError) {
+        Disposable disposable = flowable.subscribe(onNext, onError);
+        disposables.add(disposable);
+        return disposable;
+    }
+
+    /**
+     * Subscribe observer to the observable without freezing
+     * When screen finally destroyed, all subscriptions would be automatically disposed.
+     * @return disposable
+     */
+    protected <T> Disposable subscribeWithoutFreezing(final Observable<T> observable,
+                                                      final DisposableObserver<T> observer) {
+        Disposable disposable = observable.subscribeWith(observer);
+        disposables.add(disposable);
+        return disposable;
+    }
+
+    /**
+     * @see #subscribeWithoutFreezing(Observable, DisposableObserver)
+     */
+    protected <T> Disposable subscribeWithoutFreezing(final Observable<T> observable,
+                                                      final Consumer<T> onNext,
+                                                      final Consumer<Throwable> onError) {
+        Disposable disposable = observable.subscribe(onNext, onError);
+        disposables.add(disposable);
+        return disposable;
+    }
+
+    /**
+     * @return operator, which is bound to the lifecycle of this presenter
+     */
+    protected <T> FlowableOperatorFreeze<T> createFlowableOperatorFreeze(
+            FreezeBuffer.Factory<T> bufferFactory) {
+        return new FlowableOperatorFreeze<>(freezeGate, bufferFactory);
+    }
+
+    /**
+     * @return operator, which is bound to the lifecycle of this presenter
+     */
+    protected <T> ObservableOperatorFreeze<T> createObservableOperatorFreeze(
+            FreezeBuffer.Factory<T> bufferFactory) {
+        return new ObservableOperatorFreeze<>(freezeGate, bufferFactory);
+    }
+
+    /**
+     * @return gate, which holds freeze state of this presenter
+     */
+    protected FreezeGate getFreezeGate() {
+        return freezeGate;
+    }
+
+    protected boolean isDisposableInactive(Disposable disposable) {
+        return disposable == null || disposable.isDisposed();
+    }
+}
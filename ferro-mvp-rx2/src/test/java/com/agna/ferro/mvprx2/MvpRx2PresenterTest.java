@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.mvprx2;
+
+import com.agna.ferro.mvp.view.BaseView;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MvpRx2PresenterTest {
+
+    @Test
+    public void observableEventsAreFrozenWhileViewIsDetached() {
+        TestPresenter presenter = new TestPresenter();
+        PublishSubject<Integer> source = PublishSubject.create();
+        List<Integer> events = new ArrayList<>();
+        presenter.subscribe(source, events);
+
+        source.onNext(1);
+        presenter.detachView();
+        source.onNext(2);
+        assertEquals("[1]", events.toString());
+
+        presenter.onLoadFinished();
+        assertEquals("[1, 2]", events.toString());
+    }
+
+    @Test
+    public void flowableEventsAreFrozenWhileScreenIsPaused() {
+        TestPresenter presenter = new TestPresenter();
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        List<Integer> events = new ArrayList<>();
+        presenter.subscribe(source, events);
+
+        source.onNext(1);
+        presenter.onPause();
+        source.onNext(2);
+        assertEquals("[1]", events.toString());
+
+        presenter.onResume();
+        assertEquals("[1, 2]", events.toString());
+    }
+
+    @Test
+    public void subscriptionsAreDisposedOnDestroy() {
+        TestPresenter presenter = new TestPresenter();
+        Disposable disposable = presenter.subscribe(
+                PublishSubject.<Integer>create(), new ArrayList<Integer>());
+
+        presenter.onDestroy();
+        assertTrue(disposable.isDisposed());
+    }
+
+    private static class TestPresenter extends MvpRx2Presenter<BaseView> {
+
+        Disposable subscribe(Observable<Integer> observable, List<Integer> events) {
+            return subscribe(observable, collect(events), rethrow());
+        }
+
+        Disposable subscribe(Flowable<Integer> flowable, List<Integer> events) {
+            return subscribe(flowable, collect(events), rethrow());
+        }
+
+        private static Consumer<Integer> collect(final List<Integer> events) {
+            return new Consumer<Integer>() {
+                @Override
+                public void accept(Integer event) {
+                    events.add(event);
+                }
+            };
+        }
+
+        private static Consumer<Throwable> rethrow() {
+            return new Consumer<Throwable>() {
+                @Override
+                public void accept(Throwable e) {
+                    throw new AssertionError(e);
+                }
+            };
+        }
+    }
+}
@@ -15,11 +15,19 @@
  */
 package com.agna.ferro.mvp.component;
 
+import com.agna.ferro.core.ScopeKey;
 import com.agna.ferro.mvp.view.BaseView;
 
 /**
  * Base class for all screen components
  */
 public interface ScreenComponent<V extends BaseView> {
+
+    /**
+     * key, which used for store screen component in {@link com.agna.ferro.core.PersistentScreenScope},
+     * component is also stored with class {@link ScreenComponent}
+     */
+    ScopeKey<ScreenComponent<?>> SCOPE_KEY = ScopeKey.create(ScreenComponent.class.getName());
+
     void inject(V view);
 }
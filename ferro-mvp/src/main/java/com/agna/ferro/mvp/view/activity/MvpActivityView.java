@@ -130,6 +130,7 @@ public abstract class MvpActivityView extends PSSActivity implements BaseView {
         ScreenComponent component = getScreenComponent();
         if (component == null) {
             component = createScreenComponent();
+            screenScope.putObject(component, ScreenComponent.SCOPE_KEY);
             screenScope.putObject(component, ScreenComponent.class);
         }
         component.inject(this);
@@ -137,7 +138,7 @@ public abstract class MvpActivityView extends PSSActivity implements BaseView {
 
     public ScreenComponent getScreenComponent() {
         PersistentScreenScope screenScope = getPersistentScreenScope();
-        return screenScope.getObject(ScreenComponent.class);
+        return screenScope.getObject(ScreenComponent.SCOPE_KEY);
     }
 
     /**
@@ -118,6 +118,7 @@ public abstract class MvpFragmentV4View extends PSSFragmentV4 implements BaseVie
         ScreenComponent component = getScreenComponent();
         if (component == null) {
             component = createScreenComponent();
+            screenScope.putObject(component, ScreenComponent.SCOPE_KEY);
             screenScope.putObject(component, ScreenComponent.class);
         }
         component.inject(this);
@@ -125,7 +126,7 @@ public abstract class MvpFragmentV4View extends PSSFragmentV4 implements BaseVie
 
     public ScreenComponent getScreenComponent() {
         PersistentScreenScope screenScope = getPersistentScreenScope();
-        return screenScope.getObject(ScreenComponent.class);
+        return screenScope.getObject(ScreenComponent.SCOPE_KEY);
     }
 
     @Override
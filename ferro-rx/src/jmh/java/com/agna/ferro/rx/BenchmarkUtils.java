@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import rx.Subscriber;
+import rx.functions.Func1;
+import rx.functions.Func2;
+
+/**
+ * Common objects for benchmarks
+ */
+public final class BenchmarkUtils {
+
+    static final int KEYS_COUNT = 16;
+
+    private BenchmarkUtils() {
+    }
+
+    /**
+     * Strategies of freeze buffer, which are compared in benchmarks
+     */
+    public enum BufferType {
+        APPEND_ONLY,
+        LATEST_ONLY,
+        KEYED_LATEST,
+        /**
+         * default predicate before {@link FreezeBuffer} was introduced
+         */
+        REPLACING_NEVER,
+        REPLACING_BY_KEY;
+
+        FreezeBuffer.Factory<Integer> createFactory() {
+            switch (this) {
+                case APPEND_ONLY:
+                    return FreezeBuffers.appendOnly();
+                case LATEST_ONLY:
+                    return FreezeBuffers.latestOnly();
+                case KEYED_LATEST:
+                    return FreezeBuffers.keyedLatest(new Func1<Integer, Integer>() {
+                        @Override
+                        public Integer call(Integer event) {
+                            return event % KEYS_COUNT;
+                        }
+                    });
+                case REPLACING_NEVER:
+                    return FreezeBuffers.replacing(new Func2<Integer, Integer, Boolean>() {
+                        @Override
+                        public Boolean call(Integer frozenEvent, Integer newEvent) {
+                            return false;
+                        }
+                    });
+                case REPLACING_BY_KEY:
+                    return FreezeBuffers.replacing(new Func2<Integer, Integer, Boolean>() {
+                        @Override
+                        public Boolean call(Integer frozenEvent, Integer newEvent) {
+                            return frozenEvent % KEYS_COUNT == newEvent % KEYS_COUNT;
+                        }
+                    });
+                default:
+                    throw new IllegalArgumentException(toString());
+            }
+        }
+    }
+
+    /**
+     * Subscriber, which passes all events to blackhole
+     */
+    static final class BlackholeSubscriber<T> extends Subscriber<T> {
+
+        private final Blackhole blackhole;
+
+        BlackholeSubscriber(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onCompleted() {
+            blackhole.consume(true);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            blackhole.consume(e);
+        }
+
+        @Override
+        public void onNext(T event) {
+            blackhole.consume(event);
+        }
+    }
+}
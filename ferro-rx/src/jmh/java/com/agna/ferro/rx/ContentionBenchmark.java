@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import rx.Subscription;
+import rx.subjects.BehaviorSubject;
+import rx.subjects.PublishSubject;
+
+/**
+ * Throughput of {@link OperatorFreeze}, when several threads emit events to one screen
+ * and another thread freezes and unfreezes it (e.g. lifecycle changes).
+ * Producers are serialized by lock, as required by Observable contract
+ * (SerializedSubject queues events without limit under such load).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ContentionBenchmark {
+
+    private final Object sourceLock = new Object();
+    private PublishSubject<Integer> source;
+    private BehaviorSubject<Boolean> freezeSelector;
+    private Subscription subscription;
+    private boolean frozen;
+    private Integer event = 1;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        source = PublishSubject.create();
+        freezeSelector = BehaviorSubject.create(false);
+        subscription = source
+                .lift(new OperatorFreeze<Integer>(freezeSelector.toSerialized(),
+                        FreezeBuffers.<Integer>latestOnly()))
+                .subscribe(new BenchmarkUtils.BlackholeSubscriber<Integer>(blackhole));
+    }
+
+    @TearDown
+    public void tearDown() {
+        subscription.unsubscribe();
+    }
+
+    @Benchmark
+    @Group("contention")
+    @GroupThreads(3)
+    public void produce() {
+        synchronized (sourceLock) {
+            source.onNext(event);
+        }
+    }
+
+    @Benchmark
+    @Group("contention")
+    @GroupThreads(1)
+    public void toggleFreeze() {
+        frozen = !frozen;
+        freezeSelector.onNext(frozen);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import rx.Subscription;
+import rx.subjects.BehaviorSubject;
+import rx.subjects.PublishSubject;
+
+/**
+ * Cost of buffering of events in frozen {@link OperatorFreeze}, depending on num of buffered
+ * events and strategy of freeze buffer.
+ * Each invocation subscribes to frozen operator, emits bufferSize events and unsubscribes,
+ * so result includes cost of subscription.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrozenBufferingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int bufferSize;
+
+    @Param({"APPEND_ONLY", "LATEST_ONLY", "KEYED_LATEST", "REPLACING_NEVER", "REPLACING_BY_KEY"})
+    public BenchmarkUtils.BufferType bufferType;
+
+    private OperatorFreeze<Integer> operator;
+    private Integer[] events;
+
+    @Setup
+    public void setup() {
+        operator = new OperatorFreeze<>(BehaviorSubject.create(true), bufferType.createFactory());
+        events = new Integer[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            events[i] = i;
+        }
+    }
+
+    @Benchmark
+    public void buffer(Blackhole blackhole) {
+        PublishSubject<Integer> source = PublishSubject.create();
+        Subscription subscription = source
+                .lift(operator)
+                .subscribe(new BenchmarkUtils.BlackholeSubscriber<Integer>(blackhole));
+        for (Integer event : events) {
+            source.onNext(event);
+        }
+        subscription.unsubscribe();
+    }
+}
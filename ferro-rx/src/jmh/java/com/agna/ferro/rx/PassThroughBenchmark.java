@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import rx.Subscription;
+import rx.subjects.BehaviorSubject;
+import rx.subjects.PublishSubject;
+
+/**
+ * Cost of one event, which passes through unfrozen {@link OperatorFreeze},
+ * compared with the same subscription without operator
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PassThroughBenchmark {
+
+    private PublishSubject<Integer> withoutOperator;
+    private PublishSubject<Integer> withOperator;
+    private Subscription subscriptions;
+    private Integer event = 1;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        withoutOperator = PublishSubject.create();
+        withOperator = PublishSubject.create();
+        BehaviorSubject<Boolean> freezeSelector = BehaviorSubject.create(false);
+        Subscription first = withoutOperator
+                .subscribe(new BenchmarkUtils.BlackholeSubscriber<Integer>(blackhole));
+        Subscription second = withOperator
+                .lift(new OperatorFreeze<Integer>(freezeSelector))
+                .subscribe(new BenchmarkUtils.BlackholeSubscriber<Integer>(blackhole));
+        subscriptions = new rx.subscriptions.CompositeSubscription(first, second);
+    }
+
+    @TearDown
+    public void tearDown() {
+        subscriptions.unsubscribe();
+    }
+
+    @Benchmark
+    public void baseline() {
+        withoutOperator.onNext(event);
+    }
+
+    @Benchmark
+    public void unfrozen() {
+        withOperator.onNext(event);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import rx.Subscription;
+import rx.subjects.BehaviorSubject;
+import rx.subjects.PublishSubject;
+
+/**
+ * Latency of unfreezing of {@link OperatorFreeze}, which contains bufferSize events.
+ * Buffer is filled before each invocation, so result contains only emitting of buffered events.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UnfreezeDrainBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int bufferSize;
+
+    @Param({"APPEND_ONLY", "KEYED_LATEST"})
+    public BenchmarkUtils.BufferType bufferType;
+
+    private BehaviorSubject<Boolean> freezeSelector;
+    private Subscription subscription;
+
+    @Setup(Level.Invocation)
+    public void fillBuffer(Blackhole blackhole) {
+        freezeSelector = BehaviorSubject.create(true);
+        PublishSubject<Integer> source = PublishSubject.create();
+        subscription = source
+                .lift(new OperatorFreeze<>(freezeSelector, bufferType.createFactory()))
+                .subscribe(new BenchmarkUtils.BlackholeSubscriber<Integer>(blackhole));
+        for (int i = 0; i < bufferSize; i++) {
+            source.onNext(i);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        subscription.unsubscribe();
+    }
+
+    @Benchmark
+    public void unfreeze() {
+        freezeSelector.onNext(false);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+/**
+ * Buffer, which keeps all events in arrival order.
+ * Events are stored in array ring, which grows when it is full, so adding and removing of event
+ * take O(1). Array is allocated only when first event is added.
+ */
+final class AppendOnlyFreezeBuffer<T> implements GrowthAwareFreezeBuffer<T> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] elements;
+    private int head = 0;
+    private int size = 0;
+
+    @Override
+    public void add(T event) {
+        if (elements == null) {
+            elements = new Object[INITIAL_CAPACITY];
+        } else if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = event;
+        size++;
+    }
+
+    @Override
+    public boolean willGrow(T event) {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        return (T) elements[head];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        T event = (T) elements[head];
+        elements[head] = null;
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return event;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        elements = null;
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        Object[] newElements = new Object[elements.length << 1];
+        int firstPartLength = elements.length - head;
+        System.arraycopy(elements, head, newElements, 0, firstPartLength);
+        System.arraycopy(elements, 0, newElements, firstPartLength, head);
+        elements = newElements;
+        head = 0;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rx.exceptions.MissingBackpressureException;
+
+/**
+ * Buffer, which joins all buffered lists of events into one list.
+ * Events are stored in another buffer, so it decides which events would be in the list.
+ */
+final class BatchFreezeBuffer<T> implements FreezeBuffer<List<T>> {
+
+    private final FreezeBuffer<T> buffer;
+    /**
+     * events, which are moved from buffer by {@link #peek()}
+     */
+    private List<T> peekedEvents;
+
+    BatchFreezeBuffer(FreezeBuffer<T> buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void add(List<T> events) throws MissingBackpressureException {
+        if (peekedEvents != null) {
+            List<T> peeked = peekedEvents;
+            peekedEvents = null;
+            for (int i = 0; i < peeked.size(); i++) {
+                buffer.add(peeked.get(i));
+            }
+        }
+        for (int i = 0; i < events.size(); i++) {
+            buffer.add(events.get(i));
+        }
+    }
+
+    @Override
+    public List<T> peek() {
+        if (peekedEvents == null) {
+            peekedEvents = new ArrayList<>(buffer.size());
+            while (!buffer.isEmpty()) {
+                peekedEvents.add(buffer.poll());
+            }
+        }
+        return peekedEvents;
+    }
+
+    @Override
+    public List<T> poll() {
+        List<T> events = peek();
+        peekedEvents = null;
+        return events;
+    }
+
+    /**
+     * @return num of buffered events (not lists), so {@link OperatorFreeze} reports as coalesced
+     * only events, which are removed by another buffer
+     */
+    @Override
+    public int size() {
+        return peekedEvents != null ? peekedEvents.size() + buffer.size() : buffer.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return peekedEvents == null && buffer.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        peekedEvents = null;
+        buffer.clear();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import rx.exceptions.MissingBackpressureException;
+
+/**
+ * Defines what bounded {@link FreezeBuffer} does, when new event is added to the full buffer
+ * (see {@link FreezeBuffers#bounded(FreezeBuffer.Factory, int, BufferOverflowPolicy)})
+ */
+public enum BufferOverflowPolicy {
+    /**
+     * The oldest buffered event is removed
+     */
+    DROP_OLDEST,
+    /**
+     * New event is ignored
+     */
+    DROP_NEWEST,
+    /**
+     * All buffered events are removed, buffer keeps only new event
+     */
+    CONFLATE_LATEST,
+    /**
+     * New event is ignored and {@link MissingBackpressureException} is thrown,
+     * {@link OperatorFreeze} unsubscribes from source and emits this error after buffered events
+     */
+    ERROR
+}
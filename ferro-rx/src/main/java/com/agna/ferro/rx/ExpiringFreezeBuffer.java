@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import rx.Scheduler;
+import rx.exceptions.MissingBackpressureException;
+import rx.schedulers.Timestamped;
+
+/**
+ * Buffer, which removes events older than maxAge.
+ * Events are stored in another buffer with time of adding, expired events are removed
+ * from the head of buffer when new event is added and before emitting,
+ * so buffer doesn't grow, while screen is in background for a long time.
+ *
+ * Inner buffer must keep events in order of adding (all {@link FreezeBuffers} strategies do it),
+ * otherwise expired events can stay in buffer.
+ */
+final class ExpiringFreezeBuffer<T> implements GrowthAwareFreezeBuffer<T> {
+
+    private final FreezeBuffer<Timestamped<T>> buffer;
+    private final long maxAgeMillis;
+    private final Scheduler scheduler;
+    /**
+     * time of adding of the last event
+     */
+    private long newestTimestamp;
+
+    ExpiringFreezeBuffer(FreezeBuffer<Timestamped<T>> buffer,
+                         long maxAgeMillis,
+                         Scheduler scheduler) {
+        this.buffer = buffer;
+        this.maxAgeMillis = maxAgeMillis;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void add(T event) throws MissingBackpressureException {
+        long now = scheduler.now();
+        removeExpired(now, 0);
+        buffer.add(new Timestamped<>(now, event));
+        newestTimestamp = now;
+    }
+
+    /**
+     * @return false, if adding of event would remove expired events
+     */
+    @Override
+    public boolean willGrow(T event) {
+        long now = scheduler.now();
+        if (!buffer.isEmpty() && isExpired(buffer.peek().getTimestampMillis(), now)) {
+            return false;
+        }
+        return !(buffer instanceof GrowthAwareFreezeBuffer)
+                || ((GrowthAwareFreezeBuffer<Timestamped<T>>) buffer)
+                        .willGrow(new Timestamped<>(now, event));
+    }
+
+    @Override
+    public T peek() {
+        removeExpired(scheduler.now(), 1);
+        return buffer.peek().getValue();
+    }
+
+    @Override
+    public T poll() {
+        removeExpired(scheduler.now(), 1);
+        return buffer.poll().getValue();
+    }
+
+    /**
+     * @return num of events in the buffer including expired events, which are not removed yet,
+     * they are removed by {@link #add(Object)} or by {@link #clear()}, which {@link OperatorFreeze}
+     * calls when buffer is empty, so operator counts them
+     */
+    @Override
+    public int size() {
+        return buffer.size();
+    }
+
+    /**
+     * @return true, if there isn't events or all events are expired
+     */
+    @Override
+    public boolean isEmpty() {
+        return buffer.isEmpty() || isExpired(newestTimestamp, scheduler.now());
+    }
+
+    @Override
+    public void clear() {
+        buffer.clear();
+    }
+
+    /**
+     * @param keep - num of events, which are not removed even if expired,
+     *             {@link #peek()} and {@link #poll()} keep last event, which could expire
+     *             after {@link #isEmpty()} is checked
+     */
+    private void removeExpired(long now, int keep) {
+        while (buffer.size() > keep && isExpired(buffer.peek().getTimestampMillis(), now)) {
+            buffer.poll();
+        }
+    }
+
+    private boolean isExpired(long timestamp, long now) {
+        return now - timestamp > maxAgeMillis;
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import rx.Observable;
+import rx.Producer;
+import rx.Subscriber;
+import rx.Subscription;
+
+/**
+ * Hot multicast source of events, which can be observed by many subscribers with own freeze state
+ * (e.g. by presenters of several screens) without separate freeze buffer for each subscriber.
+ *
+ * Events are stored in one ring buffer with fixed capacity, each subscriber keeps only
+ * its own cursor in the ring. While subscriber is frozen, its cursor isn't moved, events are
+ * emitted from the ring when it is unfrozen, so memory doesn't depend on num of subscribers.
+ * If subscriber is behind more than capacity - 1 events (e.g. it was frozen for a long time),
+ * the oldest events are skipped for it.
+ *
+ * Subscriber receives only events, which were added after subscribing.
+ * Relay never completes. Events are emitted in the thread, which calls {@link #onNext(Object)},
+ * or in the thread, which unfreezes subscriber or requests events.
+ *
+ * @param <T> type of events
+ */
+public final class FreezableRelay<T> {
+
+    @SuppressWarnings("rawtypes")
+    private static final Consumer[] EMPTY = new Consumer[0];
+
+    private final AtomicReferenceArray<T> ring;
+    private final int capacity;
+    private final int mask;
+    private final Object writeLock = new Object();
+    private final Object consumersLock = new Object();
+    /**
+     * sequence of next event, events with sequence in
+     * [head - capacity + 1, head) can be read from the ring
+     */
+    private volatile long head;
+    @SuppressWarnings("unchecked")
+    private volatile Consumer<T>[] consumers = EMPTY;
+
+    /**
+     * @param capacity - size of ring buffer, it is rounded up to power of two
+     */
+    public FreezableRelay(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be greater than 1: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.ring = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Add event to the ring and emit it to all unfrozen subscribers
+     */
+    public void onNext(T event) {
+        synchronized (writeLock) {
+            long sequence = head;
+            ring.set((int) sequence & mask, event);
+            head = sequence + 1;
+        }
+        for (Consumer<T> consumer : consumers) {
+            consumer.drain();
+        }
+    }
+
+    /**
+     * @param freezeGate - freeze state of subscribers, if null, subscribers are never frozen
+     * @return observable, which emits events of relay, events are frozen while gate is frozen
+     */
+    public Observable<T> observe(final FreezeGate freezeGate) {
+        return Observable.create(new Observable.OnSubscribe<T>() {
+            @Override
+            public void call(Subscriber<? super T> child) {
+                Consumer<T> consumer = new Consumer<>(FreezableRelay.this, child, head);
+                child.add(consumer);
+                child.setProducer(consumer);
+                add(consumer);
+                if (freezeGate != null) {
+                    child.add(freezeGate.register(consumer));
+                } else {
+                    consumer.onFreezeStateChanged(false);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return observable, which emits events of relay without freezing
+     */
+    public Observable<T> asObservable() {
+        return observe(null);
+    }
+
+    public int getSubscribersCount() {
+        return consumers.length;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void add(Consumer<T> consumer) {
+        synchronized (consumersLock) {
+            Consumer<T>[] current = consumers;
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Consumer<T>[] next = new Consumer[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            next[current.length] = consumer;
+            consumers = next;
+        }
+    }
+
+    private void remove(Consumer<T> consumer) {
+        synchronized (consumersLock) {
+            Consumer<T>[] current = consumers;
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == consumer) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return;
+            }
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Consumer<T>[] next = new Consumer[current.length - 1];
+            System.arraycopy(current, 0, next, 0, index);
+            System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+            consumers = next;
+        }
+    }
+
+    /**
+     * Reader of the ring for one subscriber
+     */
+    private static final class Consumer<T>
+            implements Producer, Subscription, FreezeGate.Listener {
+
+        private final FreezableRelay<T> relay;
+        private final Subscriber<? super T> child;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean frozen = true;
+        private volatile boolean unsubscribed;
+        /**
+         * sequence of next event for emitting, accessed only in drain loop
+         */
+        private long cursor;
+
+        Consumer(FreezableRelay<T> relay, Subscriber<? super T> child, long cursor) {
+            this.relay = relay;
+            this.child = child;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n < 0) {
+                throw new IllegalArgumentException("n >= 0 required but it was " + n);
+            }
+            if (n == 0) {
+                return;
+            }
+            for (; ; ) {
+                long current = requested.get();
+                long next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+                if (requested.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void onFreezeStateChanged(boolean frozen) {
+            this.frozen = frozen;
+            if (!frozen) {
+                drain();
+            }
+        }
+
+        @Override
+        public void unsubscribe() {
+            if (!unsubscribed) {
+                unsubscribed = true;
+                relay.remove(this);
+            }
+        }
+
+        @Override
+        public boolean isUnsubscribed() {
+            return unsubscribed;
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (; ; ) {
+                if (unsubscribed) {
+                    return;
+                }
+                if (!frozen) {
+                    emitAvailable();
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void emitAvailable() {
+            long requestedCount = requested.get();
+            long emitted = 0;
+            while (emitted != requestedCount && !frozen && !unsubscribed) {
+                long head = relay.head;
+                if (cursor == head) {
+                    break;
+                }
+                long oldest = head - relay.capacity + 1;
+                if (cursor < oldest) {
+                    cursor = oldest;
+                }
+                T event = relay.ring.get((int) cursor & relay.mask);
+                if (cursor < relay.head - relay.capacity + 1) {
+                    //slot is overwritten while reading, skip to the oldest event
+                    continue;
+                }
+                cursor++;
+                child.onNext(event);
+                emitted++;
+            }
+            if (emitted != 0 && requestedCount != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import java.util.concurrent.TimeUnit;
+
+import rx.Scheduler;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.schedulers.Schedulers;
+import rx.schedulers.Timestamped;
+
+/**
+ * Built-in strategies of {@link FreezeBuffer}
+ */
+public final class FreezeBuffers {
+
+    private static final FreezeBuffer.Factory<Object> APPEND_ONLY = new FreezeBuffer.Factory<Object>() {
+        @Override
+        public FreezeBuffer<Object> create() {
+            return new AppendOnlyFreezeBuffer<>();
+        }
+    };
+
+    private static final FreezeBuffer.Factory<Object> LATEST_ONLY = new FreezeBuffer.Factory<Object>() {
+        @Override
+        public FreezeBuffer<Object> create() {
+            return new LatestFreezeBuffer<>();
+        }
+    };
+
+    private FreezeBuffers() {
+    }
+
+    /**
+     * Buffer keeps all events, adding of event takes O(1)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FreezeBuffer.Factory<T> appendOnly() {
+        return (FreezeBuffer.Factory<T>) (FreezeBuffer.Factory<?>) APPEND_ONLY;
+    }
+
+    /**
+     * Buffer keeps only last event
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FreezeBuffer.Factory<T> latestOnly() {
+        return (FreezeBuffer.Factory<T>) (FreezeBuffer.Factory<?>) LATEST_ONLY;
+    }
+
+    /**
+     * Buffer keeps only last event for each key, adding of event takes O(1)
+     * @param keySelector - return key of event, key must implement equals and hashCode
+     */
+    public static <T, K> FreezeBuffer.Factory<T> keyedLatest(
+            final Func1<? super T, ? extends K> keySelector) {
+        return new FreezeBuffer.Factory<T>() {
+            @Override
+            public FreezeBuffer<T> create() {
+                return new KeyedLatestFreezeBuffer<T, K>(keySelector);
+            }
+        };
+    }
+
+    /**
+     * Buffer keeps all events, but not more than capacity
+     * @param capacity - max num of events in buffer
+     * @param overflowPolicy - defines what happens, when event is added to the full buffer
+     */
+    public static <T> FreezeBuffer.Factory<T> bounded(int capacity,
+                                                      BufferOverflowPolicy overflowPolicy) {
+        return bounded(FreezeBuffers.<T>appendOnly(), capacity, overflowPolicy);
+    }
+
+    /**
+     * Limit num of events in buffers, created by another factory
+     * @param bufferFactory - factory of buffers, which are limited
+     * @param capacity - max num of events in buffer
+     * @param overflowPolicy - defines what happens, when event is added to the full buffer
+     */
+    public static <T> FreezeBuffer.Factory<T> bounded(final FreezeBuffer.Factory<T> bufferFactory,
+                                                      final int capacity,
+                                                      final BufferOverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        if (overflowPolicy == null) {
+            throw new NullPointerException("overflowPolicy is null");
+        }
+        return new FreezeBuffer.Factory<T>() {
+            @Override
+            public FreezeBuffer<T> create() {
+                return new BoundedFreezeBuffer<>(bufferFactory.create(), capacity, overflowPolicy);
+            }
+        };
+    }
+
+    /**
+     * Buffer emits high priority events before other events,
+     * both high priority and normal events are stored in buffers, created by bufferFactory
+     * @param highPriorityClassifier - return true, if event has high priority
+     */
+    public static <T> FreezeBuffer.Factory<T> priority(
+            Func1<? super T, Boolean> highPriorityClassifier,
+            FreezeBuffer.Factory<T> bufferFactory) {
+        return priority(highPriorityClassifier, bufferFactory, bufferFactory);
+    }
+
+    /**
+     * Buffer emits high priority events before other events
+     * @param highPriorityClassifier - return true, if event has high priority
+     * @param highPriorityBufferFactory - strategy of buffer for high priority events
+     * @param normalBufferFactory - strategy of buffer for other events
+     */
+    public static <T> FreezeBuffer.Factory<T> priority(
+            final Func1<? super T, Boolean> highPriorityClassifier,
+            final FreezeBuffer.Factory<T> highPriorityBufferFactory,
+            final FreezeBuffer.Factory<T> normalBufferFactory) {
+        return new FreezeBuffer.Factory<T>() {
+            @Override
+            public FreezeBuffer<T> create() {
+                return new PriorityFreezeBuffer<>(highPriorityClassifier,
+                        highPriorityBufferFactory.create(), normalBufferFactory.create());
+            }
+        };
+    }
+
+    /**
+     * Buffer keeps all events, which are not older than maxAge
+     * @param maxAge - events, which were added earlier, are removed from buffer
+     */
+    public static <T> FreezeBuffer.Factory<T> expiring(long maxAge, TimeUnit unit) {
+        return expiring(FreezeBuffers.<Timestamped<T>>appendOnly(), maxAge, unit,
+                Schedulers.immediate());
+    }
+
+    /**
+     * Buffer keeps only last event for each key, if it is not older than maxAge
+     * @param keySelector - return key of event, key must implement equals and hashCode
+     * @param maxAge - events, which were added earlier, are removed from buffer
+     */
+    public static <T, K> FreezeBuffer.Factory<T> expiringKeyedLatest(
+            final Func1<? super T, ? extends K> keySelector,
+            long maxAge,
+            TimeUnit unit) {
+        return expiring(
+                FreezeBuffers.keyedLatest(new Func1<Timestamped<T>, K>() {
+                    @Override
+                    public K call(Timestamped<T> event) {
+                        return keySelector.call(event.getValue());
+                    }
+                }),
+                maxAge,
+                unit,
+                Schedulers.immediate());
+    }
+
+    /**
+     * Remove events older than maxAge from buffers, created by another factory.
+     * Expired events are removed when new event is added and before emitting.
+     * @param bufferFactory - factory of buffers, which keep events with time of adding,
+     *                      buffer must keep events in order of adding
+     * @param maxAge - events, which were added earlier, are removed from buffer
+     * @param scheduler - source of current time
+     */
+    public static <T> FreezeBuffer.Factory<T> expiring(
+            final FreezeBuffer.Factory<Timestamped<T>> bufferFactory,
+            long maxAge,
+            TimeUnit unit,
+            final Scheduler scheduler) {
+        if (maxAge < 0) {
+            throw new IllegalArgumentException("maxAge must not be negative: " + maxAge);
+        }
+        final long maxAgeMillis = unit.toMillis(maxAge);
+        return new FreezeBuffer.Factory<T>() {
+            @Override
+            public FreezeBuffer<T> create() {
+                return new ExpiringFreezeBuffer<>(bufferFactory.create(), maxAgeMillis, scheduler);
+            }
+        };
+    }
+
+    /**
+     * Buffer compare new event with all already buffered events using replaceFrozenEventPredicate
+     * and remove buffered event if replaceFrozenEventPredicate return true.
+     * Adding of event takes O(n)
+     */
+    public static <T> FreezeBuffer.Factory<T> replacing(
+            final Func2<T, T, Boolean> replaceFrozenEventPredicate) {
+        return new FreezeBuffer.Factory<T>() {
+            @Override
+            public FreezeBuffer<T> create() {
+                return new ReplacingFreezeBuffer<>(replaceFrozenEventPredicate);
+            }
+        };
+    }
+}
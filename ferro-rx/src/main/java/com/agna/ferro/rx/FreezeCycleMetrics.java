@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+/**
+ * Statistic of one freeze cycle of {@link OperatorFreeze} subscription
+ * @see FreezeMetricsListener
+ */
+public final class FreezeCycleMetrics {
+
+    private final int bufferedEvents;
+    private final int coalescedEvents;
+    private final int peakBufferSize;
+    private final long frozenTimeNanos;
+    private final long drainTimeNanos;
+
+    public FreezeCycleMetrics(int bufferedEvents,
+                              int coalescedEvents,
+                              int peakBufferSize,
+                              long frozenTimeNanos,
+                              long drainTimeNanos) {
+        this.bufferedEvents = bufferedEvents;
+        this.coalescedEvents = coalescedEvents;
+        this.peakBufferSize = peakBufferSize;
+        this.frozenTimeNanos = frozenTimeNanos;
+        this.drainTimeNanos = drainTimeNanos;
+    }
+
+    /**
+     * @return num of events, which were added to the freeze buffer
+     */
+    public int getBufferedEvents() {
+        return bufferedEvents;
+    }
+
+    /**
+     * @return num of events, which were removed from the freeze buffer without emitting
+     * (replaced by newer events or dropped by bounded buffer)
+     */
+    public int getCoalescedEvents() {
+        return coalescedEvents;
+    }
+
+    /**
+     * @return max num of events in the freeze buffer
+     */
+    public int getPeakBufferSize() {
+        return peakBufferSize;
+    }
+
+    /**
+     * @return time from freezing to unfreezing, 0 if events were buffered
+     * when operator was unfrozen
+     */
+    public long getFrozenTimeNanos() {
+        return frozenTimeNanos;
+    }
+
+    /**
+     * @return time from unfreezing to emitting of the last buffered event
+     */
+    public long getDrainTimeNanos() {
+        return drainTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "FreezeCycleMetrics{" +
+                "bufferedEvents=" + bufferedEvents +
+                ", coalescedEvents=" + coalescedEvents +
+                ", peakBufferSize=" + peakBufferSize +
+                ", frozenTimeNanos=" + frozenTimeNanos +
+                ", drainTimeNanos=" + drainTimeNanos +
+                '}';
+    }
+}
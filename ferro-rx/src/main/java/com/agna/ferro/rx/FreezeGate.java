@@ -0,0 +1,183 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.Subscription;
+
+/**
+ * Holder of freeze state, which is shared between many {@link OperatorFreeze}.
+ * Unlike freeze selector Observable, gate keeps state once, ignores setting of the same state
+ * and notifies registered listeners directly, so many operators can use one gate cheaply.
+ *
+ * State should be changed from one thread at a time (usually main thread),
+ * listeners can be registered from any thread.
+ */
+public final class FreezeGate {
+
+    private final Object lock = new Object();
+    private volatile boolean frozen;
+    private volatile Registration[] registrations = new Registration[0];
+
+    /**
+     * @param frozen - initial state
+     */
+    public FreezeGate(boolean frozen) {
+        this.frozen = frozen;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Change state and notify listeners, nothing happens if state is the same
+     */
+    public void setFrozen(boolean frozen) {
+        if (this.frozen == frozen) {
+            return;
+        }
+        this.frozen = frozen;
+        for (Registration registration : registrations) {
+            registration.notifyListener();
+        }
+    }
+
+    /**
+     * Register listener, listener is immediately notified with current state.
+     * Notifications of one listener are serialized, so initial state can't overwrite state,
+     * which is set concurrently with registration
+     * @return subscription, unsubscribe it for unregistering of listener
+     */
+    public Subscription register(Listener listener) {
+        Registration registration = new Registration(listener);
+        synchronized (lock) {
+            Registration[] current = registrations;
+            Registration[] next = new Registration[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            next[current.length] = registration;
+            registrations = next;
+        }
+        registration.notifyListener();
+        return registration;
+    }
+
+    /**
+     * @return num of registered listeners
+     */
+    public int getListenersCount() {
+        return registrations.length;
+    }
+
+    /**
+     * @return observable, which emits current state and its changes
+     */
+    public Observable<Boolean> asObservable() {
+        return Observable.create(new Observable.OnSubscribe<Boolean>() {
+            @Override
+            public void call(final Subscriber<? super Boolean> subscriber) {
+                subscriber.add(register(new Listener() {
+                    @Override
+                    public void onFreezeStateChanged(boolean frozen) {
+                        subscriber.onNext(frozen);
+                    }
+                }));
+            }
+        });
+    }
+
+    private void unregister(Registration registration) {
+        synchronized (lock) {
+            Registration[] current = registrations;
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == registration) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return;
+            }
+            Registration[] next = new Registration[current.length - 1];
+            System.arraycopy(current, 0, next, 0, index);
+            System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+            registrations = next;
+        }
+    }
+
+    /**
+     * Listener of freeze state
+     */
+    public interface Listener {
+        void onFreezeStateChanged(boolean frozen);
+    }
+
+    /**
+     * Registered listener, it is notified only by thread, which increments {@link #wip} from zero,
+     * state is read again on each pass, so listener always receives the latest state last
+     */
+    private final class Registration implements Subscription {
+
+        private volatile Listener listener;
+        private final AtomicInteger wip = new AtomicInteger();
+        /**
+         * accessed only by notifying thread
+         */
+        private boolean notified;
+        private boolean notifiedFrozen;
+
+        Registration(Listener listener) {
+            this.listener = listener;
+        }
+
+        void notifyListener() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (; ; ) {
+                Listener current = listener;
+                boolean state = frozen;
+                if (current != null && (!notified || notifiedFrozen != state)) {
+                    notified = true;
+                    notifiedFrozen = state;
+                    current.onFreezeStateChanged(state);
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public void unsubscribe() {
+            if (listener != null) {
+                listener = null;
+                unregister(this);
+            }
+        }
+
+        @Override
+        public boolean isUnsubscribed() {
+            return listener == null;
+        }
+    }
+}
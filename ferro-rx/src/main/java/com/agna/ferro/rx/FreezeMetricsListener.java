@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+/**
+ * Listener, which receives statistic of {@link OperatorFreeze} subscription,
+ * see {@link OperatorFreeze.Builder#metricsListener(FreezeMetricsListener)}.
+ *
+ * Listener is called from thread, which emits events to subscriber,
+ * so it should be fast and must not throw exceptions.
+ */
+public interface FreezeMetricsListener {
+
+    /**
+     * Called when all events, which were buffered during one freeze cycle, are emitted.
+     * Cycle starts, when operator is frozen or when first event is added to empty buffer
+     * (e.g. when subscriber has not requested events). Each unfreezing is reported,
+     * even if no events were buffered. Cycle, which is not finished before
+     * unsubscription, is not reported.
+     */
+    void onFreezeCycleFinished(FreezeCycleMetrics metrics);
+}
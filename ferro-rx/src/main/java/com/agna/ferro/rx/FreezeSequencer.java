@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import java.util.ArrayDeque;
+
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+
+/**
+ * Single ordered queue of frozen events for many subscriptions (e.g. all subscriptions of
+ * one presenter), used by {@link OperatorOrderedFreeze}.
+ * Events of all subscriptions are added to one queue in order of arrival, so after unfreezing
+ * they are emitted in the same order, as they were received, regardless of the subscription.
+ * Whole queue is emitted as one batch in one task on drain scheduler.
+ *
+ * Sequencer can be bound to {@link FreezeGate} via {@link #bindTo(FreezeGate)}.
+ */
+public final class FreezeSequencer implements FreezeGate.Listener {
+
+    private final Object lock = new Object();
+    /**
+     * null if queue is emitted synchronously in the thread, which unfreezes sequencer
+     */
+    private final Scheduler.Worker drainWorker;
+    private final Action0 drainAction = new Action0() {
+        @Override
+        public void call() {
+            drain();
+        }
+    };
+    /**
+     * guarded by lock
+     */
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    private boolean frozen = true;
+    private boolean draining = false;
+
+    /**
+     * @param drainScheduler - scheduler, on which frozen events are emitted after unfreezing
+     *                       (usually main thread scheduler), if null, events are emitted
+     *                       synchronously
+     */
+    public FreezeSequencer(Scheduler drainScheduler) {
+        this.drainWorker = drainScheduler != null ? drainScheduler.createWorker() : null;
+    }
+
+    /**
+     * Freeze and unfreeze sequencer, when gate changes state
+     * @return subscription, unsubscribe it for unbinding
+     */
+    public Subscription bindTo(FreezeGate freezeGate) {
+        return freezeGate.register(this);
+    }
+
+    @Override
+    public void onFreezeStateChanged(boolean frozen) {
+        setFrozen(frozen);
+    }
+
+    public void setFrozen(boolean frozen) {
+        synchronized (lock) {
+            this.frozen = frozen;
+            if (frozen || draining || queue.isEmpty()) {
+                return;
+            }
+            draining = true;
+        }
+        if (drainWorker != null) {
+            drainWorker.schedule(drainAction);
+        } else {
+            drain();
+        }
+    }
+
+    /**
+     * @return num of frozen events of all subscriptions
+     */
+    public int size() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Remove all frozen events, sequencer can be used after it.
+     * Already scheduled drain isn't cancelled, it emits events, which are added after clearing
+     */
+    public void clear() {
+        synchronized (lock) {
+            queue.clear();
+        }
+    }
+
+    /**
+     * Add event to the queue, if sequencer is frozen or the queue isn't emitted yet
+     * @return false, if event isn't added and should be emitted immediately
+     */
+    boolean enqueue(Target target, int kind, Object value) {
+        synchronized (lock) {
+            if (!frozen && !draining) {
+                return false;
+            }
+            queue.add(new Entry(target, kind, value));
+            return true;
+        }
+    }
+
+    private void drain() {
+        for (; ; ) {
+            Entry entry;
+            synchronized (lock) {
+                entry = frozen ? null : queue.poll();
+                if (entry == null) {
+                    draining = false;
+                    return;
+                }
+            }
+            entry.target.emit(entry.kind, entry.value);
+        }
+    }
+
+    /**
+     * Receiver of events from the queue
+     */
+    interface Target {
+        int NEXT = 0;
+        int ERROR = 1;
+        int COMPLETED = 2;
+
+        void emit(int kind, Object value);
+    }
+
+    private static final class Entry {
+        final Target target;
+        final int kind;
+        final Object value;
+
+        Entry(Target target, int kind, Object value) {
+            this.target = target;
+            this.kind = kind;
+            this.value = value;
+        }
+    }
+}
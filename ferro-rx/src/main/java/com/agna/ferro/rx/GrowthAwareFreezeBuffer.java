@@ -0,0 +1,29 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+/**
+ * Buffer, which can tell in advance whether event would increase num of buffered events.
+ * It is used by {@link BoundedFreezeBuffer} to reject event without adding it to the full buffer.
+ */
+interface GrowthAwareFreezeBuffer<T> extends FreezeBuffer<T> {
+
+    /**
+     * @return true, if {@link #add(Object)} of event would increase {@link #size()},
+     * buffered events are not changed
+     */
+    boolean willGrow(T event);
+}
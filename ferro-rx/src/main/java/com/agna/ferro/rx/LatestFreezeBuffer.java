@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+/**
+ * Buffer, which keeps only last event
+ */
+final class LatestFreezeBuffer<T> implements GrowthAwareFreezeBuffer<T> {
+
+    private T event;
+    private boolean hasEvent = false;
+
+    @Override
+    public void add(T event) {
+        this.event = event;
+        this.hasEvent = true;
+    }
+
+    @Override
+    public boolean willGrow(T event) {
+        return !hasEvent;
+    }
+
+    @Override
+    public T peek() {
+        return event;
+    }
+
+    @Override
+    public T poll() {
+        T result = event;
+        clear();
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return hasEvent ? 1 : 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !hasEvent;
+    }
+
+    @Override
+    public void clear() {
+        event = null;
+        hasEvent = false;
+    }
+}
@@ -16,24 +16,48 @@
 package com.agna.ferro.rx;
 
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import rx.Observable;
+import rx.Producer;
+import rx.Scheduler;
 import rx.Subscriber;
 import rx.exceptions.Exceptions;
+import rx.functions.Action0;
+import rx.functions.Func1;
 import rx.functions.Func2;
-import rx.observers.SerializedSubscriber;
 
 /**
  * This operator freezes all rx events (onNext, onError, onComplete) when freeze selector emits true,
  * and unfreeze it after freeze selector emits false.
- * If freeze selector does not emit any elements, all events would be frozen
- * If you want reduce num of elements in freeze buffer, you can define replaceFrozenEventPredicate.
+ * If freeze selector does not emit any elements, all events would be frozen.
+ * Instead of freeze selector, operator can use {@link FreezeGate}, which is cheaper
+ * when many operators are bound to the same state.
+ * Frozen normal (onNext) events are stored in {@link FreezeBuffer}, by default buffer keeps all
+ * events. If you want reduce num of elements in freeze buffer, you can use one of
+ * {@link FreezeBuffers} strategies or define replaceFrozenEventPredicate.
  * When Observable frozen and source observable emits normal (onNext) event, before it is added to
  * the end of buffer, it compare with all already buffered events using replaceFrozenEventPredicate,
  * and if replaceFrozenEventPredicate return true, buffered element would be removed.
+ * Note, that replaceFrozenEventPredicate is called for each buffered event, prefer
+ * {@link FreezeBuffers#keyedLatest} or {@link FreezeBuffers#latestOnly()}, which take O(1).
+ *
+ * Operator supports backpressure, events are emitted only when child requests them.
+ * Demand of child is passed to source even while operator is frozen, events received
+ * while it is frozen are stored in freeze buffer, so bounded sources (e.g. observeOn) can deliver
+ * requested events to the buffer instead of failing with MissingBackpressureException.
+ * Source can be stopped while operator is frozen via {@link Builder#pauseRequestsWhileFrozen}.
+ *
+ * Events can be split on high priority and normal events
+ * (see {@link Builder#priority(Func1, FreezeGate)}), high priority events are emitted before
+ * other buffered events, and optionally they can be emitted while operator is frozen.
+ *
+ * Statistic of freeze cycles (num of buffered events, frozen time, etc.) can be received via
+ * {@link FreezeMetricsListener}.
  *
  * Observable after this operator can emit event in different threads
  */
@@ -41,31 +65,92 @@ import rx.observers.SerializedSubscriber;
 public class OperatorFreeze<T> implements Observable.Operator<T, T> {
 
     private final Observable<Boolean> freezeSelector;
-    private final Func2<T, T, Boolean> replaceFrozenEventPredicate;
+    private final FreezeGate freezeGate;
+    private final FreezeBuffer.Factory<T> bufferFactory;
+    private final Scheduler drainScheduler;
+    private final int maxEventsPerSlice;
+    private final long maxSliceTimeNanos;
+    private final FreezeMetricsListener metricsListener;
+    private final Func1<? super T, Boolean> highPriorityClassifier;
+    private final FreezeGate highPriorityFreezeGate;
+    private final boolean pauseRequestsWhileFrozen;
+
+    public OperatorFreeze(Observable<Boolean> freezeSelector,
+                          FreezeBuffer.Factory<T> bufferFactory) {
+        this(new Builder<T>(freezeSelector).bufferFactory(bufferFactory));
+    }
 
     public OperatorFreeze(Observable<Boolean> freezeSelector,
                           Func2<T, T, Boolean> replaceFrozenEventPredicate) {
-        this.freezeSelector = freezeSelector;
-        this.replaceFrozenEventPredicate = replaceFrozenEventPredicate;
+        this(freezeSelector, FreezeBuffers.replacing(replaceFrozenEventPredicate));
     }
 
     public OperatorFreeze(Observable<Boolean> freezeSelector) {
-        this(freezeSelector, new Func2<T, T, Boolean>() {
-            @Override
-            public Boolean call(T frozenEvent, T newEvent) {
-                return false;
-            }
-        });
+        this(freezeSelector, FreezeBuffers.<T>appendOnly());
+    }
+
+    public OperatorFreeze(FreezeGate freezeGate,
+                          FreezeBuffer.Factory<T> bufferFactory) {
+        this(new Builder<T>(freezeGate).bufferFactory(bufferFactory));
+    }
+
+    public OperatorFreeze(FreezeGate freezeGate) {
+        this(freezeGate, FreezeBuffers.<T>appendOnly());
+    }
 
+    private OperatorFreeze(Builder<T> builder) {
+        this.freezeSelector = builder.freezeSelector;
+        this.freezeGate = builder.freezeGate;
+        this.bufferFactory = builder.highPriorityClassifier == null
+                ? builder.bufferFactory
+                : FreezeBuffers.priority(builder.highPriorityClassifier, builder.bufferFactory);
+        this.drainScheduler = builder.drainScheduler;
+        this.maxEventsPerSlice = builder.maxEventsPerSlice;
+        this.maxSliceTimeNanos = builder.maxSliceTimeNanos;
+        this.metricsListener = builder.metricsListener;
+        this.highPriorityClassifier = builder.highPriorityClassifier;
+        this.highPriorityFreezeGate = builder.highPriorityFreezeGate;
+        this.pauseRequestsWhileFrozen = builder.pauseRequestsWhileFrozen;
     }
 
 
     @Override
     public Subscriber<? super T> call(Subscriber<? super T> child) {
 
+        Scheduler.Worker drainWorker = null;
+        if (drainScheduler != null) {
+            drainWorker = drainScheduler.createWorker();
+            child.add(drainWorker);
+        }
         final FreezeSubscriber<T> freezeSubscriber = new FreezeSubscriber<>(
-                new SerializedSubscriber<>(child),
-                replaceFrozenEventPredicate);
+                child,
+                bufferFactory.create(),
+                drainWorker,
+                maxEventsPerSlice,
+                maxSliceTimeNanos,
+                metricsListener,
+                highPriorityFreezeGate != null ? highPriorityClassifier : null,
+                pauseRequestsWhileFrozen);
+        child.add(freezeSubscriber);
+        child.setProducer(new Producer() {
+            @Override
+            public void request(long n) {
+                freezeSubscriber.requestMore(n);
+            }
+        });
+        if (highPriorityFreezeGate != null) {
+            child.add(highPriorityFreezeGate.register(new FreezeGate.Listener() {
+                @Override
+                public void onFreezeStateChanged(boolean frozen) {
+                    freezeSubscriber.setHighPriorityFrozen(frozen);
+                }
+            }));
+        }
+
+        if (freezeGate != null) {
+            child.add(freezeGate.register(freezeSubscriber));
+            return freezeSubscriber;
+        }
 
         final Subscriber<Boolean> freezeSelectorSubscriber = new Subscriber<Boolean>() {
             @Override
@@ -83,7 +168,6 @@ public class OperatorFreeze<T> implements Observable.Operator<T, T> {
                 freezeSubscriber.setFrozen(freeze);
             }
         };
-        child.add(freezeSubscriber);
         child.add(freezeSelectorSubscriber);
         freezeSelector.unsafeSubscribe(freezeSelectorSubscriber);
 
@@ -91,111 +175,573 @@ public class OperatorFreeze<T> implements Observable.Operator<T, T> {
 
     }
 
+    /**
+     * Subscriber, which emits events to child only if child requested them.
+     * Demand of child is passed to source. If pauseRequestsWhileFrozen is true, demand,
+     * which is requested while it is frozen, is passed to source only after unfreezing.
+     * Events, which are received when it is frozen or child has not requested them yet,
+     * are stored in buffer.
+     *
+     * Subscriber does not use locks. Events from source are added to the queue, and
+     * only one thread at a time (thread, which increments {@link #wip} from zero) moves them to
+     * the buffer and emits them to child, other threads only increment {@link #wip}, so emitting
+     * thread makes one more pass of drain loop.
+     */
+    private static final class FreezeSubscriber<T> extends Subscriber<T>
+            implements FreezeGate.Listener {
 
-    private static final class FreezeSubscriber<T> extends Subscriber<T> {
+        private static final Object NULL_EVENT = new Object();
 
-        private final Subscriber<T> child;
-        private final Func2<T, T, Boolean> replaceFrozenEventPredicate;
-        private final List<T> frozenEventsBuffer = new LinkedList<>();
+        private final Subscriber<? super T> child;
+        /**
+         * worker for emitting buffered events after unfreezing, null if events are emitted
+         * synchronously
+         */
+        private final Scheduler.Worker drainWorker;
+        private final int maxEventsPerSlice;
+        private final long maxSliceTimeNanos;
+        /**
+         * null if metrics are not collected
+         */
+        private final FreezeMetricsListener metricsListener;
+        /**
+         * not null if high priority events can be emitted while it is frozen
+         */
+        private final Func1<? super T, Boolean> highPriorityClassifier;
+        private final boolean pauseRequestsWhileFrozen;
+        private final Action0 drainAction = new Action0() {
+            @Override
+            public void call() {
+                drainLoop();
+            }
+        };
+        /**
+         * accessed only from drain loop
+         */
+        private final FreezeBuffer<T> frozenEventsBuffer;
+        /**
+         * true if buffer joins all events into one (see {@link OperatorFreezeBatch}),
+         * its size is num of joined events, but it is emitted as one event
+         */
+        private final boolean batchBuffer;
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        /**
+         * num of events, which child requested, but not received
+         */
+        private final AtomicLong requested = new AtomicLong();
+        /**
+         * num of events, which need request from source
+         */
+        private final AtomicLong notRequestedFromSource = new AtomicLong();
 
-        private boolean frozen = true;
-        private boolean done = false;
-        private Throwable error = null;
+        private volatile boolean frozen = true;
+        private volatile boolean highPriorityFrozen = true;
+        private volatile boolean done = false;
+        private volatile Throwable error = null;
+        private volatile boolean forceDone = false;
+        private volatile Throwable forceError = null;
+        /**
+         * true if buffer can't accept events, accessed only from drain loop
+         */
+        private boolean bufferFailed = false;
 
-        public FreezeSubscriber(Subscriber<T> child, Func2<T, T, Boolean> replaceFrozenEventPredicate) {
+        /**
+         * time of the last freezing and unfreezing, written before {@link #frozen}
+         */
+        private volatile long freezeTime;
+        private volatile long unfreezeTime;
+        /**
+         * sum of finished frozen periods and num of unfreezings, written before {@link #frozen},
+         * unfreezingCount is written after totalFrozenTime
+         */
+        private volatile long totalFrozenTime;
+        private volatile int unfreezingCount;
+        /**
+         * values, which are already reported, accessed only from drain loop
+         */
+        private long reportedFrozenTime;
+        private int reportedUnfreezingCount;
+        /**
+         * true after the first freeze state is received, accessed only from {@link #setFrozen}
+         */
+        private boolean freezeStateReceived;
+        /**
+         * statistic of the current freeze cycle, accessed only from drain loop
+         */
+        private int cycleBufferedEvents;
+        private int cycleCoalescedEvents;
+        private int cyclePeakBufferSize;
+        private long cycleStartTime;
+        private boolean cycleStartedFrozen;
+
+        public FreezeSubscriber(Subscriber<? super T> child,
+                                FreezeBuffer<T> frozenEventsBuffer,
+                                Scheduler.Worker drainWorker,
+                                int maxEventsPerSlice,
+                                long maxSliceTimeNanos,
+                                FreezeMetricsListener metricsListener,
+                                Func1<? super T, Boolean> highPriorityClassifier,
+                                boolean pauseRequestsWhileFrozen) {
             this.child = child;
-            this.replaceFrozenEventPredicate = replaceFrozenEventPredicate;
+            this.frozenEventsBuffer = frozenEventsBuffer;
+            this.batchBuffer = frozenEventsBuffer instanceof BatchFreezeBuffer;
+            this.drainWorker = drainWorker;
+            this.maxEventsPerSlice = maxEventsPerSlice;
+            this.maxSliceTimeNanos = maxSliceTimeNanos;
+            this.metricsListener = metricsListener;
+            this.highPriorityClassifier = highPriorityClassifier;
+            this.pauseRequestsWhileFrozen = pauseRequestsWhileFrozen;
+            if (metricsListener != null) {
+                freezeTime = System.nanoTime();
+            }
+            //nothing is requested from source until child requests events
+            request(0);
         }
 
         @Override
         public void onCompleted() {
-            if (done || error != null) {
+            if (done) {
                 return;
             }
-            synchronized (this) {
-                if (frozen) {
-                    done = true;
-                } else {
-                    child.onCompleted();
-                    unsubscribe();
-                }
-            }
+            done = true;
+            drain();
         }
 
         @Override
         public void onError(Throwable e) {
-            if (done || error != null) {
+            if (done) {
                 return;
             }
-            synchronized (this) {
-                if (frozen) {
-                    error = e;
-                } else {
-                    child.onError(e);
-                    unsubscribe();
-                }
-            }
+            error = e;
+            done = true;
+            drain();
         }
 
         @Override
         public void onNext(T event) {
-            if (done || error != null) {
+            if (done) {
                 return;
             }
-            synchronized (this) {
-                if (frozen) {
-                    bufferEvent(event);
-                } else {
+            if (wip.get() == 0 && wip.compareAndSet(0, 1)) {
+                //fast path, event is emitted or buffered without queue
+                if (!frozen && queue.isEmpty() && frozenEventsBuffer.isEmpty()
+                        && requested.get() > 0) {
+                    produced(requested);
                     child.onNext(event);
+                    if (wip.decrementAndGet() == 0) {
+                        return;
+                    }
+                } else {
+                    bufferEvent(event);
+                }
+            } else {
+                queue.offer(event == null ? NULL_EVENT : event);
+                if (wip.getAndIncrement() != 0) {
+                    return;
                 }
             }
+            drainLoop();
         }
 
-        private void bufferEvent(T event) {
-            for (ListIterator<T> it = frozenEventsBuffer.listIterator(); it.hasNext(); ) {
-                T frozenEvent = it.next();
-                try {
-                    if (replaceFrozenEventPredicate.call(frozenEvent, event)) {
-                        it.remove();
-                    }
-                } catch (Throwable ex) {
-                    Exceptions.throwIfFatal(ex);
-                    unsubscribe();
-                    onError(ex);
-                    return;
-                }
+        public void requestMore(long n) {
+            if (n < 0) {
+                throw new IllegalArgumentException("n >= 0 required but it was " + n);
             }
-            frozenEventsBuffer.add(event);
+            if (n == 0) {
+                return;
+            }
+            addRequest(requested, n);
+            addRequest(notRequestedFromSource, n);
+            drain();
         }
 
         public void forceOnComplete() {
-            child.onCompleted();
-            unsubscribe();
+            forceDone = true;
+            drain();
         }
 
         public void forceOnError(Throwable e) {
-            child.onError(e);
-            unsubscribe();
+            forceError = e;
+            forceDone = true;
+            drain();
         }
 
-        public synchronized void setFrozen(boolean frozen) {
+        @Override
+        public void onFreezeStateChanged(boolean frozen) {
+            setFrozen(frozen);
+        }
+
+        public void setFrozen(boolean frozen) {
+            if (metricsListener != null) {
+                if (frozen && !this.frozen) {
+                    freezeTime = System.nanoTime();
+                } else if (!frozen && this.frozen && freezeStateReceived) {
+                    //operator, which is frozen since subscription, is counted too
+                    long now = System.nanoTime();
+                    totalFrozenTime += now - freezeTime;
+                    unfreezeTime = now;
+                    unfreezingCount++;
+                }
+                freezeStateReceived = true;
+            }
             this.frozen = frozen;
             if (!frozen) {
-                emitFrozenEvents();
-                if (error != null) {
-                    forceOnError(error);
+                if (drainWorker == null) {
+                    drain();
+                } else if (wip.getAndIncrement() == 0) {
+                    drainWorker.schedule(drainAction);
+                }
+            }
+        }
+
+        public void setHighPriorityFrozen(boolean highPriorityFrozen) {
+            this.highPriorityFrozen = highPriorityFrozen;
+            if (!highPriorityFrozen) {
+                drain();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() == 0) {
+                drainLoop();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drainLoop() {
+            int missed = 1;
+            int emittedInSlice = 0;
+            long sliceStartTime = maxSliceTimeNanos != Long.MAX_VALUE ? System.nanoTime() : 0;
+            for (; ; ) {
+                if (child.isUnsubscribed()) {
+                    queue.clear();
+                    frozenEventsBuffer.clear();
+                    return;
+                }
+                if (forceDone) {
+                    queue.clear();
+                    frozenEventsBuffer.clear();
+                    unsubscribe();
+                    Throwable e = forceError;
+                    if (e != null) {
+                        child.onError(e);
+                    } else {
+                        child.onCompleted();
+                    }
+                    return;
+                }
+
+                //done must be read before queue, because source sets it after last event
+                boolean sourceDone = done;
+                if (!frozen) {
+                    //buffered events are older than queued, queued events are emitted directly,
+                    //so they aren't replaced in the buffer while child requests them
+                    while (!frozen && requested.get() > 0) {
+                        if (drainWorker != null && emittedInSlice > 0
+                                && isSliceFinished(emittedInSlice, sliceStartTime)) {
+                            //continue in the next slice, wip isn't decremented, so other threads
+                            //don't start drain until next slice completes
+                            drainWorker.schedule(drainAction);
+                            return;
+                        }
+                        T event;
+                        if (!frozenEventsBuffer.isEmpty()) {
+                            event = frozenEventsBuffer.poll();
+                        } else {
+                            Object queuedEvent = queue.poll();
+                            if (queuedEvent == null) {
+                                break;
+                            }
+                            event = queuedEvent == NULL_EVENT ? null : (T) queuedEvent;
+                        }
+                        emittedInSlice++;
+                        produced(requested);
+                        child.onNext(event);
+                        if (child.isUnsubscribed()) {
+                            break;
+                        }
+                    }
+                }
+                Object queuedEvent;
+                while ((queuedEvent = queue.poll()) != null) {
+                    bufferEvent(queuedEvent == NULL_EVENT ? null : (T) queuedEvent);
+                }
+                if (frozenEventsBuffer.isEmpty()) {
+                    clearDroppedEvents();
+                }
+
+                if (!frozen) {
+                    if (metricsListener != null && frozenEventsBuffer.isEmpty()
+                            && (cycleBufferedEvents > 0
+                            || unfreezingCount != reportedUnfreezingCount)) {
+                        finishCycle();
+                    }
+                    if (!frozen && (sourceDone || bufferFailed) && frozenEventsBuffer.isEmpty()) {
+                        unsubscribe();
+                        Throwable e = error;
+                        if (e != null) {
+                            child.onError(e);
+                        } else {
+                            child.onCompleted();
+                        }
+                        return;
+                    }
+                } else if (highPriorityClassifier != null) {
+                    emitHighPriorityEvents();
                 }
-                if (done) {
-                    forceOnComplete();
+                if (!frozen || !pauseRequestsWhileFrozen) {
+                    long missedRequest = notRequestedFromSource.getAndSet(0);
+                    if (missedRequest > 0 && !sourceDone && !bufferFailed) {
+                        request(missedRequest);
+                    }
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
                 }
             }
         }
 
-        private void emitFrozenEvents() {
-            for (T event : frozenEventsBuffer) {
-                child.onNext(event);
+        /**
+         * Emit high priority events from the head of buffer, while it is frozen
+         */
+        private void emitHighPriorityEvents() {
+            while (frozen && !highPriorityFrozen && requested.get() > 0
+                    && !frozenEventsBuffer.isEmpty()
+                    && highPriorityClassifier.call(frozenEventsBuffer.peek())) {
+                produced(requested);
+                child.onNext(frozenEventsBuffer.poll());
+                if (child.isUnsubscribed()) {
+                    return;
+                }
+            }
+        }
+
+        private boolean isSliceFinished(int emittedInSlice, long sliceStartTime) {
+            return emittedInSlice >= maxEventsPerSlice
+                    || (maxSliceTimeNanos != Long.MAX_VALUE
+                    && System.nanoTime() - sliceStartTime >= maxSliceTimeNanos);
+        }
+
+        /**
+         * Add event to the buffer, if buffer removes or joins events, the same num of events
+         * would be requested from source
+         */
+        private void bufferEvent(T event) {
+            if (bufferFailed) {
+                return;
+            }
+            boolean emptyBefore = frozenEventsBuffer.isEmpty();
+            int sizeBefore = frozenEventsBuffer.size();
+            try {
+                frozenEventsBuffer.add(event);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                bufferFailed = true;
+                error = ex;
+                done = true;
+                unsubscribe();
+                return;
+            }
+            int sizeAfter = frozenEventsBuffer.size();
+            int removedEvents = sizeBefore + 1 - sizeAfter;
+            //batch is emitted as one event, so joined event isn't emitted separately too
+            int notEmittedEvents = batchBuffer
+                    ? (emptyBefore ? 0 : 1) + 1 - (frozenEventsBuffer.isEmpty() ? 0 : 1)
+                    : removedEvents;
+            if (notEmittedEvents > 0 && requested.get() != Long.MAX_VALUE) {
+                addRequest(notRequestedFromSource, notEmittedEvents);
+            }
+            if (metricsListener != null) {
+                if (cycleBufferedEvents == 0) {
+                    cycleStartTime = System.nanoTime();
+                    cycleStartedFrozen = frozen;
+                }
+                cycleBufferedEvents++;
+                if (removedEvents > 0) {
+                    cycleCoalescedEvents += removedEvents;
+                }
+                cyclePeakBufferSize = Math.max(cyclePeakBufferSize, sizeAfter);
+            }
+        }
+
+        /**
+         * Remove events, which buffer keeps, although it reports that it is empty
+         * (e.g. expired events), they are requested from source again
+         */
+        private void clearDroppedEvents() {
+            int droppedEvents = frozenEventsBuffer.size();
+            if (droppedEvents == 0) {
+                return;
             }
             frozenEventsBuffer.clear();
+            if (requested.get() != Long.MAX_VALUE) {
+                addRequest(notRequestedFromSource, droppedEvents);
+            }
+            if (metricsListener != null) {
+                cycleCoalescedEvents += droppedEvents;
+            }
+        }
+
+        /**
+         * Report statistic of the current freeze cycle and start new one
+         */
+        private void finishCycle() {
+            long now = System.nanoTime();
+            int currentUnfreezingCount = unfreezingCount;
+            long currentFrozenTime = totalFrozenTime;
+            long drainStartTime = cycleBufferedEvents > 0 ? cycleStartTime : now;
+            //operator could be frozen after the first event of cycle was buffered
+            if (cycleStartedFrozen || currentUnfreezingCount != reportedUnfreezingCount) {
+                drainStartTime = unfreezeTime;
+            }
+            FreezeCycleMetrics metrics = new FreezeCycleMetrics(
+                    cycleBufferedEvents,
+                    cycleCoalescedEvents,
+                    cyclePeakBufferSize,
+                    Math.max(0, currentFrozenTime - reportedFrozenTime),
+                    Math.max(0, now - drainStartTime));
+            reportedUnfreezingCount = currentUnfreezingCount;
+            reportedFrozenTime = currentFrozenTime;
+            cycleBufferedEvents = 0;
+            cycleCoalescedEvents = 0;
+            cyclePeakBufferSize = 0;
+            metricsListener.onFreezeCycleFinished(metrics);
+        }
+
+        private static void addRequest(AtomicLong requested, long n) {
+            for (; ; ) {
+                long current = requested.get();
+                long next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+                if (requested.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        private static void produced(AtomicLong requested) {
+            for (; ; ) {
+                long current = requested.get();
+                if (current == Long.MAX_VALUE || requested.compareAndSet(current, current - 1)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link OperatorFreeze}
+     */
+    public static final class Builder<T> {
+
+        private final Observable<Boolean> freezeSelector;
+        private final FreezeGate freezeGate;
+        private FreezeBuffer.Factory<T> bufferFactory = FreezeBuffers.appendOnly();
+        private Scheduler drainScheduler;
+        private int maxEventsPerSlice = Integer.MAX_VALUE;
+        private long maxSliceTimeNanos = Long.MAX_VALUE;
+        private FreezeMetricsListener metricsListener;
+        private Func1<? super T, Boolean> highPriorityClassifier;
+        private FreezeGate highPriorityFreezeGate;
+        private boolean pauseRequestsWhileFrozen = false;
+
+        public Builder(Observable<Boolean> freezeSelector) {
+            this.freezeSelector = freezeSelector;
+            this.freezeGate = null;
+        }
+
+        public Builder(FreezeGate freezeGate) {
+            this.freezeSelector = null;
+            this.freezeGate = freezeGate;
+        }
+
+        /**
+         * @param bufferFactory - strategy of freeze buffer, see {@link FreezeBuffers}
+         */
+        public Builder<T> bufferFactory(FreezeBuffer.Factory<T> bufferFactory) {
+            this.bufferFactory = bufferFactory;
+            return this;
+        }
+
+        /**
+         * Emit buffered events after unfreezing on drainScheduler, split on slices.
+         * When slice is finished, next slice is scheduled on drainScheduler, so events emitted
+         * in the main thread don't block it for a long time.
+         * While buffered events are emitted, new events are added to the end of buffer.
+         *
+         * @param drainScheduler - scheduler, on which buffered events are emitted
+         * @param maxEventsPerSlice - max num of events, emitted in one slice
+         * @param maxSliceTime - slice is finished, when this time has elapsed,
+         *                     at least one event is emitted in each slice
+         */
+        public Builder<T> drainOn(Scheduler drainScheduler,
+                                  int maxEventsPerSlice,
+                                  long maxSliceTime,
+                                  TimeUnit unit) {
+            if (maxEventsPerSlice <= 0) {
+                throw new IllegalArgumentException(
+                        "maxEventsPerSlice must be positive: " + maxEventsPerSlice);
+            }
+            this.drainScheduler = drainScheduler;
+            this.maxEventsPerSlice = maxEventsPerSlice;
+            this.maxSliceTimeNanos = unit.toNanos(maxSliceTime);
+            return this;
+        }
+
+        /**
+         * @param metricsListener - receives statistic of freeze cycles of each subscription,
+         *                        if null (default), statistic is not collected
+         */
+        public Builder<T> metricsListener(FreezeMetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+            return this;
+        }
+
+        /**
+         * High priority events are stored in separate lane of freeze buffer
+         * and emitted before other buffered events
+         * @param highPriorityClassifier - return true, if event has high priority
+         * @see FreezeBuffers#priority(Func1, FreezeBuffer.Factory)
+         */
+        public Builder<T> priority(Func1<? super T, Boolean> highPriorityClassifier) {
+            return priority(highPriorityClassifier, null);
+        }
+
+        /**
+         * High priority events are stored in separate lane of freeze buffer
+         * and emitted before other buffered events.
+         * If highPriorityFreezeGate is not null, high priority events are emitted while operator
+         * is frozen, but highPriorityFreezeGate is unfrozen (e.g. when screen is paused,
+         * but view isn't destroyed)
+         * @param highPriorityClassifier - return true, if event has high priority
+         * @param highPriorityFreezeGate - freeze state for high priority events, can be null
+         */
+        public Builder<T> priority(Func1<? super T, Boolean> highPriorityClassifier,
+                                   FreezeGate highPriorityFreezeGate) {
+            this.highPriorityClassifier = highPriorityClassifier;
+            this.highPriorityFreezeGate = highPriorityFreezeGate;
+            return this;
+        }
+
+        /**
+         * If true, demand of child is not passed to source while operator is frozen,
+         * so backpressure-capable source stops emitting and it is requested after unfreezing.
+         * Don't use it with sources, which can't be stopped (e.g. hot Observable with observeOn),
+         * they fail with MissingBackpressureException when frozen for a long time.
+         * Default disabled.
+         */
+        public Builder<T> pauseRequestsWhileFrozen(boolean pause) {
+            this.pauseRequestsWhileFrozen = pause;
+            return this;
+        }
+
+        public OperatorFreeze<T> build() {
+            return new OperatorFreeze<>(this);
         }
     }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import java.util.Collections;
+import java.util.List;
+
+import rx.Observable;
+import rx.Subscriber;
+
+/**
+ * This operator works as {@link OperatorFreeze}, but emits events as lists.
+ * When operator is unfrozen, each event is emitted as list with one element.
+ * All events, which were frozen, are emitted as one list when freeze selector emits false,
+ * so subscriber can handle them at once (e.g. update view once).
+ * Frozen events are stored in {@link FreezeBuffer}, which decides, which events would be in
+ * the list, by default all events are kept.
+ *
+ * Observable after this operator can emit event in different threads
+ */
+public class OperatorFreezeBatch<T> implements Observable.Operator<List<T>, T> {
+
+    private final OperatorFreeze<List<T>> operatorFreeze;
+
+    /**
+     * @param builder - builder of {@link OperatorFreeze}, which is used for emitting lists,
+     *                buffer factory of builder is replaced
+     * @param bufferFactory - strategy of freeze buffer, see {@link FreezeBuffers}
+     */
+    public OperatorFreezeBatch(OperatorFreeze.Builder<List<T>> builder,
+                               final FreezeBuffer.Factory<T> bufferFactory) {
+        this.operatorFreeze = builder
+                .bufferFactory(new FreezeBuffer.Factory<List<T>>() {
+                    @Override
+                    public FreezeBuffer<List<T>> create() {
+                        return new BatchFreezeBuffer<>(bufferFactory.create());
+                    }
+                })
+                .build();
+    }
+
+    public OperatorFreezeBatch(Observable<Boolean> freezeSelector,
+                               FreezeBuffer.Factory<T> bufferFactory) {
+        this(new OperatorFreeze.Builder<List<T>>(freezeSelector), bufferFactory);
+    }
+
+    public OperatorFreezeBatch(Observable<Boolean> freezeSelector) {
+        this(freezeSelector, FreezeBuffers.<T>appendOnly());
+    }
+
+    public OperatorFreezeBatch(FreezeGate freezeGate,
+                               FreezeBuffer.Factory<T> bufferFactory) {
+        this(new OperatorFreeze.Builder<List<T>>(freezeGate), bufferFactory);
+    }
+
+    public OperatorFreezeBatch(FreezeGate freezeGate) {
+        this(freezeGate, FreezeBuffers.<T>appendOnly());
+    }
+
+    @Override
+    public Subscriber<? super T> call(Subscriber<? super List<T>> child) {
+        final Subscriber<? super List<T>> freezeSubscriber = operatorFreeze.call(child);
+        return new Subscriber<T>(freezeSubscriber) {
+            @Override
+            public void onCompleted() {
+                freezeSubscriber.onCompleted();
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                freezeSubscriber.onError(e);
+            }
+
+            @Override
+            public void onNext(T event) {
+                freezeSubscriber.onNext(Collections.singletonList(event));
+            }
+        };
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import rx.Completable;
+import rx.Observable;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.subscriptions.CompositeSubscription;
+
+/**
+ * This operator freezes terminal event of {@link Completable}
+ * (use it with {@link Completable#lift}).
+ * Operator holds only completion or error, which is emitted when freeze selector emits false.
+ * If operator is unfrozen, event is emitted immediately.
+ *
+ * Completable after this operator can emit event in different threads
+ */
+public class OperatorFreezeCompletable implements Completable.CompletableOperator {
+
+    private final FreezeGate freezeGate;
+    private final Observable<Boolean> freezeSelector;
+
+    public OperatorFreezeCompletable(FreezeGate freezeGate) {
+        this.freezeGate = freezeGate;
+        this.freezeSelector = null;
+    }
+
+    public OperatorFreezeCompletable(Observable<Boolean> freezeSelector) {
+        this.freezeGate = null;
+        this.freezeSelector = freezeSelector;
+    }
+
+    @Override
+    public Completable.CompletableSubscriber call(Completable.CompletableSubscriber child) {
+        return new CompletableFreezeSubscriber(child, freezeGate, freezeSelector);
+    }
+
+    private static final class CompletableFreezeSubscriber
+            implements Completable.CompletableSubscriber, FreezeGate.Listener {
+
+        private final Completable.CompletableSubscriber child;
+        private final FreezeGate freezeGate;
+        private final Observable<Boolean> freezeSelector;
+        private final CompositeSubscription subscriptions = new CompositeSubscription();
+        /**
+         * guarded by this
+         */
+        private boolean frozen = true;
+        private boolean done;
+        private boolean emitted;
+        private Throwable error;
+
+        CompletableFreezeSubscriber(Completable.CompletableSubscriber child,
+                                    FreezeGate freezeGate,
+                                    Observable<Boolean> freezeSelector) {
+            this.child = child;
+            this.freezeGate = freezeGate;
+            this.freezeSelector = freezeSelector;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            subscriptions.add(subscription);
+            child.onSubscribe(subscriptions);
+            if (freezeGate != null) {
+                subscriptions.add(freezeGate.register(this));
+            } else {
+                subscriptions.add(freezeSelector.unsafeSubscribe(new Subscriber<Boolean>() {
+                    @Override
+                    public void onCompleted() {
+                        // do nothing
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        CompletableFreezeSubscriber.this.onError(e);
+                        onFreezeStateChanged(false);
+                    }
+
+                    @Override
+                    public void onNext(Boolean frozen) {
+                        onFreezeStateChanged(frozen);
+                    }
+                }));
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                error = e;
+                done = true;
+            }
+            tryEmit();
+        }
+
+        @Override
+        public void onCompleted() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            tryEmit();
+        }
+
+        @Override
+        public void onFreezeStateChanged(boolean frozen) {
+            synchronized (this) {
+                this.frozen = frozen;
+            }
+            if (!frozen) {
+                tryEmit();
+            }
+        }
+
+        private void tryEmit() {
+            synchronized (this) {
+                if (frozen || !done || emitted) {
+                    return;
+                }
+                emitted = true;
+            }
+            if (subscriptions.isUnsubscribed()) {
+                return;
+            }
+            subscriptions.unsubscribe();
+            if (error != null) {
+                child.onError(error);
+            } else {
+                child.onCompleted();
+            }
+        }
+    }
+}
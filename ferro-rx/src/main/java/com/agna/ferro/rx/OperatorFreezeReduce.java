@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.exceptions.Exceptions;
+import rx.exceptions.OnErrorThrowable;
+import rx.functions.Func0;
+import rx.functions.Func2;
+
+/**
+ * This operator works as {@link OperatorFreeze}, but instead of buffering of frozen events
+ * it folds all events into one state using accumulator, like {@link Observable#scan}.
+ * Each event produces new state, when operator is unfrozen, new state is emitted immediately,
+ * when operator is frozen, only the last state is kept and it is emitted after unfreezing.
+ * So memory, used by frozen operator, does not depend on num of frozen events.
+ * If subscriber does not request states as fast as source emits events, intermediate states
+ * are skipped too, but the last state is always emitted.
+ *
+ * It is useful for streams of changes (e.g. deltas of screen model), when subscriber
+ * is interested only in result of all changes.
+ *
+ * Observable after this operator can emit event in different threads
+ */
+public class OperatorFreezeReduce<T, R> implements Observable.Operator<R, T> {
+
+    private final OperatorFreeze<R> operatorFreeze;
+    private final Func0<R> seedFactory;
+    private final Func2<R, ? super T, R> accumulator;
+
+    /**
+     * @param builder - builder of {@link OperatorFreeze}, which is used for emitting states,
+     *                buffer factory of builder is replaced
+     * @param seedFactory - create initial state for each subscription, it is called before
+     *                    the first event, initial state isn't emitted
+     * @param accumulator - return new state from previous state and event
+     */
+    public OperatorFreezeReduce(OperatorFreeze.Builder<R> builder,
+                                Func0<R> seedFactory,
+                                Func2<R, ? super T, R> accumulator) {
+        this.operatorFreeze = builder
+                .bufferFactory(FreezeBuffers.<R>latestOnly())
+                .build();
+        this.seedFactory = seedFactory;
+        this.accumulator = accumulator;
+    }
+
+    public OperatorFreezeReduce(Observable<Boolean> freezeSelector,
+                                Func0<R> seedFactory,
+                                Func2<R, ? super T, R> accumulator) {
+        this(new OperatorFreeze.Builder<R>(freezeSelector), seedFactory, accumulator);
+    }
+
+    public OperatorFreezeReduce(FreezeGate freezeGate,
+                                Func0<R> seedFactory,
+                                Func2<R, ? super T, R> accumulator) {
+        this(new OperatorFreeze.Builder<R>(freezeGate), seedFactory, accumulator);
+    }
+
+    @Override
+    public Subscriber<? super T> call(Subscriber<? super R> child) {
+        final Subscriber<? super R> freezeSubscriber = operatorFreeze.call(child);
+        return new Subscriber<T>(freezeSubscriber) {
+
+            private R state;
+            private boolean hasState = false;
+            private boolean done = false;
+
+            @Override
+            public void onCompleted() {
+                if (done) {
+                    return;
+                }
+                done = true;
+                freezeSubscriber.onCompleted();
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                freezeSubscriber.onError(e);
+            }
+
+            @Override
+            public void onNext(T event) {
+                if (done) {
+                    return;
+                }
+                try {
+                    if (!hasState) {
+                        state = seedFactory.call();
+                        hasState = true;
+                    }
+                    state = accumulator.call(state, event);
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    done = true;
+                    //stop source, error would be emitted after unfreezing
+                    unsubscribe();
+                    freezeSubscriber.onError(OnErrorThrowable.addValueAsLastCause(ex, event));
+                    return;
+                }
+                freezeSubscriber.onNext(state);
+            }
+        };
+    }
+}
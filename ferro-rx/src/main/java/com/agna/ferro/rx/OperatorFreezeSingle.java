@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.Subscription;
+
+/**
+ * This operator freezes result of {@link rx.Single} (use it with {@link rx.Single#lift}).
+ * Unlike {@link OperatorFreeze}, it doesn't create buffer, operator holds only one value
+ * or error, which is emitted when freeze selector emits false.
+ * If operator is unfrozen, value or error is emitted immediately.
+ *
+ * Single after this operator can emit event in different threads
+ */
+public class OperatorFreezeSingle<T> implements Observable.Operator<T, T> {
+
+    private final FreezeGate freezeGate;
+    private final Observable<Boolean> freezeSelector;
+
+    public OperatorFreezeSingle(FreezeGate freezeGate) {
+        this.freezeGate = freezeGate;
+        this.freezeSelector = null;
+    }
+
+    public OperatorFreezeSingle(Observable<Boolean> freezeSelector) {
+        this.freezeGate = null;
+        this.freezeSelector = freezeSelector;
+    }
+
+    @Override
+    public Subscriber<? super T> call(final Subscriber<? super T> child) {
+        final SingleFreezeSubscriber<T> freezeSubscriber = new SingleFreezeSubscriber<>(child);
+        child.add(freezeSubscriber);
+        if (freezeGate != null) {
+            child.add(freezeGate.register(freezeSubscriber));
+        } else {
+            Subscription selectorSubscription = freezeSelector.unsafeSubscribe(
+                    new Subscriber<Boolean>() {
+                        @Override
+                        public void onCompleted() {
+                            // do nothing
+                        }
+
+                        @Override
+                        public void onError(Throwable e) {
+                            freezeSubscriber.onError(e);
+                            freezeSubscriber.onFreezeStateChanged(false);
+                        }
+
+                        @Override
+                        public void onNext(Boolean frozen) {
+                            freezeSubscriber.onFreezeStateChanged(frozen);
+                        }
+                    });
+            child.add(selectorSubscription);
+        }
+        return freezeSubscriber;
+    }
+
+    private static final class SingleFreezeSubscriber<T> extends Subscriber<T>
+            implements FreezeGate.Listener {
+
+        private final Subscriber<? super T> child;
+        /**
+         * guarded by this
+         */
+        private boolean frozen = true;
+        private boolean done;
+        private boolean emitted;
+        private T value;
+        private boolean hasValue;
+        private Throwable error;
+
+        SingleFreezeSubscriber(Subscriber<? super T> child) {
+            this.child = child;
+        }
+
+        @Override
+        public void onNext(T event) {
+            synchronized (this) {
+                value = event;
+                hasValue = true;
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                error = e;
+                done = true;
+            }
+            tryEmit();
+        }
+
+        @Override
+        public void onCompleted() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            tryEmit();
+        }
+
+        @Override
+        public void onFreezeStateChanged(boolean frozen) {
+            synchronized (this) {
+                this.frozen = frozen;
+            }
+            if (!frozen) {
+                tryEmit();
+            }
+        }
+
+        private void tryEmit() {
+            synchronized (this) {
+                if (frozen || !done || emitted) {
+                    return;
+                }
+                emitted = true;
+            }
+            if (child.isUnsubscribed()) {
+                return;
+            }
+            if (error != null) {
+                child.onError(error);
+            } else {
+                if (hasValue) {
+                    child.onNext(value);
+                    value = null;
+                }
+                child.onCompleted();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import rx.Observable;
+import rx.Subscriber;
+
+/**
+ * This operator freezes all rx events (onNext, onError, onComplete) using {@link FreezeSequencer},
+ * which keeps frozen events of many subscriptions in one ordered queue.
+ * Unlike {@link OperatorFreeze}, after unfreezing events of different subscriptions are emitted
+ * in order of arrival, in one task on drain scheduler of sequencer.
+ *
+ * Frozen events aren't replaced or removed, events are requested from source without limit.
+ * Events of unsubscribed subscription are skipped.
+ *
+ * Observable after this operator can emit event in different threads
+ */
+public class OperatorOrderedFreeze<T> implements Observable.Operator<T, T> {
+
+    private final FreezeSequencer sequencer;
+
+    public OperatorOrderedFreeze(FreezeSequencer sequencer) {
+        this.sequencer = sequencer;
+    }
+
+    @Override
+    public Subscriber<? super T> call(Subscriber<? super T> child) {
+        SequencedSubscriber<T> subscriber = new SequencedSubscriber<>(child, sequencer);
+        child.add(subscriber);
+        return subscriber;
+    }
+
+    private static final class SequencedSubscriber<T> extends Subscriber<T>
+            implements FreezeSequencer.Target {
+
+        private final Subscriber<? super T> child;
+        private final FreezeSequencer sequencer;
+
+        SequencedSubscriber(Subscriber<? super T> child, FreezeSequencer sequencer) {
+            this.child = child;
+            this.sequencer = sequencer;
+        }
+
+        @Override
+        public void onNext(T event) {
+            if (!sequencer.enqueue(this, NEXT, event)) {
+                child.onNext(event);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (!sequencer.enqueue(this, ERROR, e)) {
+                child.onError(e);
+            }
+        }
+
+        @Override
+        public void onCompleted() {
+            if (!sequencer.enqueue(this, COMPLETED, null)) {
+                child.onCompleted();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void emit(int kind, Object value) {
+            if (child.isUnsubscribed()) {
+                return;
+            }
+            switch (kind) {
+                case NEXT:
+                    child.onNext((T) value);
+                    break;
+                case ERROR:
+                    child.onError((Throwable) value);
+                    break;
+                case COMPLETED:
+                    child.onCompleted();
+                    break;
+            }
+        }
+    }
+}
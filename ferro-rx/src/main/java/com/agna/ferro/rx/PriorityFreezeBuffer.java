@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import rx.exceptions.MissingBackpressureException;
+import rx.functions.Func1;
+
+/**
+ * Buffer with two lanes, high priority events are emitted before normal events.
+ * Each lane is a separate buffer, so events keep order inside lane
+ * and each lane applies its own strategy (e.g. keeps only latest events).
+ */
+final class PriorityFreezeBuffer<T> implements GrowthAwareFreezeBuffer<T> {
+
+    private final Func1<? super T, Boolean> highPriorityClassifier;
+    private final FreezeBuffer<T> highPriorityBuffer;
+    private final FreezeBuffer<T> normalBuffer;
+
+    PriorityFreezeBuffer(Func1<? super T, Boolean> highPriorityClassifier,
+                         FreezeBuffer<T> highPriorityBuffer,
+                         FreezeBuffer<T> normalBuffer) {
+        this.highPriorityClassifier = highPriorityClassifier;
+        this.highPriorityBuffer = highPriorityBuffer;
+        this.normalBuffer = normalBuffer;
+    }
+
+    @Override
+    public void add(T event) throws MissingBackpressureException {
+        if (highPriorityClassifier.call(event)) {
+            highPriorityBuffer.add(event);
+        } else {
+            normalBuffer.add(event);
+        }
+    }
+
+    @Override
+    public boolean willGrow(T event) {
+        FreezeBuffer<T> buffer = highPriorityClassifier.call(event)
+                ? highPriorityBuffer
+                : normalBuffer;
+        return !(buffer instanceof GrowthAwareFreezeBuffer)
+                || ((GrowthAwareFreezeBuffer<T>) buffer).willGrow(event);
+    }
+
+    @Override
+    public T peek() {
+        return highPriorityBuffer.isEmpty() ? normalBuffer.peek() : highPriorityBuffer.peek();
+    }
+
+    @Override
+    public T poll() {
+        return highPriorityBuffer.isEmpty() ? normalBuffer.poll() : highPriorityBuffer.poll();
+    }
+
+    @Override
+    public int size() {
+        return highPriorityBuffer.size() + normalBuffer.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return highPriorityBuffer.isEmpty() && normalBuffer.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        highPriorityBuffer.clear();
+        normalBuffer.clear();
+    }
+}
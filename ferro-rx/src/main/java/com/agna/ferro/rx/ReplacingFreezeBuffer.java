@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import java.util.LinkedList;
+import java.util.ListIterator;
+
+import rx.functions.Func2;
+
+/**
+ * Buffer, which compare new event with all already buffered events using
+ * replaceFrozenEventPredicate, and if replaceFrozenEventPredicate return true, buffered event
+ * would be removed. New event is added to the end of buffer.
+ *
+ * Adding of event takes O(n), use {@link FreezeBuffers#keyedLatest} or
+ * {@link FreezeBuffers#latestOnly()} if it is possible.
+ */
+final class ReplacingFreezeBuffer<T> implements GrowthAwareFreezeBuffer<T> {
+
+    private final Func2<T, T, Boolean> replaceFrozenEventPredicate;
+    private final LinkedList<T> events = new LinkedList<>();
+
+    ReplacingFreezeBuffer(Func2<T, T, Boolean> replaceFrozenEventPredicate) {
+        this.replaceFrozenEventPredicate = replaceFrozenEventPredicate;
+    }
+
+    @Override
+    public void add(T event) {
+        for (ListIterator<T> it = events.listIterator(); it.hasNext(); ) {
+            T frozenEvent = it.next();
+            if (replaceFrozenEventPredicate.call(frozenEvent, event)) {
+                it.remove();
+            }
+        }
+        events.add(event);
+    }
+
+    @Override
+    public boolean willGrow(T event) {
+        for (T frozenEvent : events) {
+            if (replaceFrozenEventPredicate.call(frozenEvent, event)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T peek() {
+        return events.getFirst();
+    }
+
+    @Override
+    public T poll() {
+        return events.removeFirst();
+    }
+
+    @Override
+    public int size() {
+        return events.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import rx.Notification;
+import rx.Observable;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+/**
+ * Unlike {@link OperatorFreeze}, which keeps source active and buffers events while frozen,
+ * this transformer stops the source: source is unsubscribed when freeze selector emits true
+ * and subscribed again when freeze selector emits false, so frozen screen doesn't make
+ * any work (e.g. network requests or polling) for events, which would be buffered or dropped.
+ * Source is subscribed first time, when freeze selector emits false.
+ *
+ * Source should be cold observable, which fetches fresh data on each subscription.
+ * If emitLastValueOnResume is true, last event received from source is emitted again
+ * after unfreezing before fresh data (e.g. for showing data on recreated view immediately).
+ *
+ * When source completes or fails, resulting observable completes or fails too.
+ *
+ * Observable after this transformer can emit event in different threads
+ */
+public class TransformerFreezeUpstream<T> implements Observable.Transformer<T, T> {
+
+    private final Observable<Boolean> freezeSelector;
+    private final boolean emitLastValueOnResume;
+
+    /**
+     * @param freezeSelector - freeze state, source is unsubscribed, when it emits true
+     * @param emitLastValueOnResume - emit last event of source after unfreezing
+     */
+    public TransformerFreezeUpstream(Observable<Boolean> freezeSelector,
+                                     boolean emitLastValueOnResume) {
+        this.freezeSelector = freezeSelector;
+        this.emitLastValueOnResume = emitLastValueOnResume;
+    }
+
+    public TransformerFreezeUpstream(FreezeGate freezeGate, boolean emitLastValueOnResume) {
+        this(freezeGate.asObservable(), emitLastValueOnResume);
+    }
+
+    public TransformerFreezeUpstream(FreezeGate freezeGate) {
+        this(freezeGate, false);
+    }
+
+    @Override
+    public Observable<T> call(final Observable<T> source) {
+        return Observable.defer(new Func0<Observable<T>>() {
+            @Override
+            public Observable<T> call() {
+                final AtomicReference<Notification<T>> lastValue = new AtomicReference<>();
+                return freezeSelector
+                        .distinctUntilChanged()
+                        .switchMap(new Func1<Boolean, Observable<Notification<T>>>() {
+                            @Override
+                            public Observable<Notification<T>> call(Boolean frozen) {
+                                if (frozen) {
+                                    return Observable.never();
+                                }
+                                return resume(source, lastValue);
+                            }
+                        })
+                        .<T>dematerialize();
+            }
+        });
+    }
+
+    private Observable<Notification<T>> resume(Observable<T> source,
+                                               final AtomicReference<Notification<T>> lastValue) {
+        Observable<Notification<T>> events = source.materialize();
+        if (!emitLastValueOnResume) {
+            return events;
+        }
+        events = events.doOnNext(new Action1<Notification<T>>() {
+            @Override
+            public void call(Notification<T> event) {
+                if (event.isOnNext()) {
+                    lastValue.set(event);
+                }
+            }
+        });
+        Notification<T> last = lastValue.get();
+        return last != null ? events.startWith(last) : events;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rx.exceptions.MissingBackpressureException;
+import rx.functions.Func1;
+import rx.functions.Func2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class BoundedFreezeBufferTest {
+
+    private static final Func1<Integer, Integer> PARITY = new Func1<Integer, Integer>() {
+        @Override
+        public Integer call(Integer event) {
+            return event % 2;
+        }
+    };
+
+    @Test
+    public void dropNewestAcceptsEventWhichReplacesBufferedOne() throws Exception {
+        FreezeBuffer<Integer> buffer = FreezeBuffers.bounded(
+                FreezeBuffers.keyedLatest(PARITY), 2, BufferOverflowPolicy.DROP_NEWEST).create();
+        buffer.add(0);
+        buffer.add(1);
+        buffer.add(2);
+        assertEquals("[1, 2]", drain(buffer));
+    }
+
+    @Test
+    public void dropNewestIgnoresEventWhichGrowsFullBuffer() throws Exception {
+        FreezeBuffer<Integer> buffer = FreezeBuffers.<Integer>bounded(
+                2, BufferOverflowPolicy.DROP_NEWEST).create();
+        buffer.add(0);
+        buffer.add(1);
+        buffer.add(2);
+        assertEquals("[0, 1]", drain(buffer));
+    }
+
+    @Test
+    public void dropOldestRemovesOldestEvent() throws Exception {
+        FreezeBuffer<Integer> buffer = FreezeBuffers.<Integer>bounded(
+                2, BufferOverflowPolicy.DROP_OLDEST).create();
+        buffer.add(0);
+        buffer.add(1);
+        buffer.add(2);
+        assertEquals("[1, 2]", drain(buffer));
+    }
+
+    @Test
+    public void conflateLatestKeepsOnlyNewEvent() throws Exception {
+        FreezeBuffer<Integer> buffer = FreezeBuffers.<Integer>bounded(
+                2, BufferOverflowPolicy.CONFLATE_LATEST).create();
+        buffer.add(0);
+        buffer.add(1);
+        buffer.add(2);
+        assertEquals("[2]", drain(buffer));
+    }
+
+    @Test
+    public void errorIsThrownOnlyIfEventGrowsFullBuffer() throws Exception {
+        FreezeBuffer<Integer> buffer = FreezeBuffers.bounded(
+                FreezeBuffers.keyedLatest(PARITY), 2, BufferOverflowPolicy.ERROR).create();
+        buffer.add(0);
+        buffer.add(1);
+        buffer.add(3);
+        try {
+            buffer.add(5);
+        } catch (MissingBackpressureException e) {
+            fail("event replaces buffered one");
+        }
+        FreezeBuffer<Integer> appendOnly = FreezeBuffers.<Integer>bounded(
+                2, BufferOverflowPolicy.ERROR).create();
+        appendOnly.add(0);
+        appendOnly.add(1);
+        try {
+            appendOnly.add(2);
+            fail("buffer is full");
+        } catch (MissingBackpressureException expected) {
+            assertEquals("[0, 1]", drain(appendOnly));
+        }
+        assertEquals("[0, 5]", drain(buffer));
+    }
+
+    @Test
+    public void replacingBufferCallsPredicateOnlyForFullBuffer() throws Exception {
+        final int[] calls = new int[1];
+        FreezeBuffer<Integer> buffer = FreezeBuffers.bounded(
+                FreezeBuffers.replacing(new Func2<Integer, Integer, Boolean>() {
+                    @Override
+                    public Boolean call(Integer frozenEvent, Integer event) {
+                        calls[0]++;
+                        return frozenEvent % 2 == event % 2;
+                    }
+                }), 2, BufferOverflowPolicy.DROP_NEWEST).create();
+        buffer.add(0);
+        buffer.add(1);
+        assertEquals(1, calls[0]);
+        buffer.add(2);
+        assertEquals("[1, 2]", drain(buffer));
+        assertEquals(4, calls[0]);
+    }
+
+    private static String drain(FreezeBuffer<Integer> buffer) {
+        List<Integer> events = new ArrayList<>();
+        while (!buffer.isEmpty()) {
+            events.add(buffer.poll());
+        }
+        return events.toString();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import rx.Subscription;
+import rx.observers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+
+public class FreezableRelayTest {
+
+    @Test
+    public void unfrozenSubscriberReceivesEventsImmediately() {
+        FreezableRelay<Integer> relay = new FreezableRelay<>(8);
+        relay.onNext(0);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        relay.asObservable().subscribe(subscriber);
+
+        relay.onNext(1);
+        relay.onNext(2);
+        subscriber.assertValues(1, 2);
+    }
+
+    @Test
+    public void frozenSubscriberReceivesEventsAfterUnfreeze() {
+        FreezableRelay<Integer> relay = new FreezableRelay<>(8);
+        FreezeGate gate = new FreezeGate(true);
+        TestSubscriber<Integer> frozenSubscriber = new TestSubscriber<>();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        relay.observe(gate).subscribe(frozenSubscriber);
+        relay.asObservable().subscribe(subscriber);
+
+        relay.onNext(1);
+        relay.onNext(2);
+        frozenSubscriber.assertNoValues();
+        subscriber.assertValues(1, 2);
+
+        gate.setFrozen(false);
+        frozenSubscriber.assertValues(1, 2);
+    }
+
+    @Test
+    public void oldestEventsAreSkippedIfSubscriberIsBehindCapacity() {
+        FreezableRelay<Integer> relay = new FreezableRelay<>(4);
+        FreezeGate gate = new FreezeGate(true);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        relay.observe(gate).subscribe(subscriber);
+
+        for (int i = 1; i <= 10; i++) {
+            relay.onNext(i);
+        }
+        gate.setFrozen(false);
+        subscriber.assertValues(8, 9, 10);
+    }
+
+    @Test
+    public void subscriberReceivesOnlyRequestedEvents() {
+        FreezableRelay<Integer> relay = new FreezableRelay<>(8);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(1L);
+        relay.asObservable().subscribe(subscriber);
+
+        relay.onNext(1);
+        relay.onNext(2);
+        relay.onNext(3);
+        subscriber.assertValues(1);
+
+        subscriber.requestMore(2);
+        subscriber.assertValues(1, 2, 3);
+    }
+
+    @Test
+    public void unsubscribedSubscriberIsRemoved() {
+        FreezableRelay<Integer> relay = new FreezableRelay<>(8);
+        FreezeGate gate = new FreezeGate(false);
+        Subscription subscription = relay.observe(gate).subscribe(new TestSubscriber<Integer>());
+        assertEquals(1, relay.getSubscribersCount());
+        assertEquals(1, gate.getListenersCount());
+
+        subscription.unsubscribe();
+        assertEquals(0, relay.getSubscribersCount());
+        assertEquals(0, gate.getListenersCount());
+    }
+
+    @Test
+    public void concurrentFreezingDoesNotLoseOrReorderEvents() throws InterruptedException {
+        final int count = 100000;
+        final FreezableRelay<Integer> relay = new FreezableRelay<>(count + 1);
+        FreezeGate gate = new FreezeGate(false);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        relay.observe(gate).subscribe(subscriber);
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    relay.onNext(i);
+                }
+            }
+        });
+        producer.start();
+        for (int i = 0; i < 10000; i++) {
+            gate.setFrozen(i % 2 == 0);
+        }
+        gate.setFrozen(false);
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+
+        List<Integer> events = subscriber.getOnNextEvents();
+        assertEquals(count, events.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, events.get(i).intValue());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+
+public class FreezeSequencerTest {
+
+    @Test
+    public void eventsOfAllSubscriptionsAreEmittedInOrderOfArrival() {
+        FreezeSequencer sequencer = new FreezeSequencer(null);
+        PublishSubject<String> first = PublishSubject.create();
+        PublishSubject<String> second = PublishSubject.create();
+        List<String> events = new ArrayList<>();
+        subscribe(first, sequencer, events);
+        subscribe(second, sequencer, events);
+
+        first.onNext("a1");
+        second.onNext("b1");
+        first.onNext("a2");
+        second.onCompleted();
+        assertEquals(4, sequencer.size());
+        assertEquals(0, events.size());
+
+        sequencer.setFrozen(false);
+        assertEquals(0, sequencer.size());
+        assertEquals("[a1, b1, a2, completed]", events.toString());
+
+        first.onNext("a3");
+        assertEquals("[a1, b1, a2, completed, a3]", events.toString());
+    }
+
+    @Test
+    public void eventsReceivedWhileDrainingAreEmittedAfterQueue() {
+        FreezeSequencer sequencer = new FreezeSequencer(null);
+        final PublishSubject<String> first = PublishSubject.create();
+        PublishSubject<String> second = PublishSubject.create();
+        final List<String> events = new ArrayList<>();
+        first.lift(new OperatorOrderedFreeze<String>(sequencer))
+                .subscribe(new EventsSubscriber(events) {
+                    @Override
+                    public void onNext(String event) {
+                        super.onNext(event);
+                        if (event.equals("a1")) {
+                            first.onNext("a2");
+                        }
+                    }
+                });
+        subscribe(second, sequencer, events);
+
+        first.onNext("a1");
+        second.onNext("b1");
+        sequencer.setFrozen(false);
+        assertEquals("[a1, b1, a2]", events.toString());
+    }
+
+    @Test
+    public void eventsAreEmittedOnDrainScheduler() {
+        TestScheduler scheduler = new TestScheduler();
+        FreezeSequencer sequencer = new FreezeSequencer(scheduler);
+        PublishSubject<String> source = PublishSubject.create();
+        List<String> events = new ArrayList<>();
+        subscribe(source, sequencer, events);
+
+        source.onNext("a1");
+        sequencer.setFrozen(false);
+        assertEquals(0, events.size());
+
+        scheduler.triggerActions();
+        assertEquals("[a1]", events.toString());
+    }
+
+    @Test
+    public void eventsOfUnsubscribedSubscriptionAreSkipped() {
+        FreezeSequencer sequencer = new FreezeSequencer(null);
+        PublishSubject<String> first = PublishSubject.create();
+        PublishSubject<String> second = PublishSubject.create();
+        List<String> events = new ArrayList<>();
+        Subscription subscription = subscribe(first, sequencer, events);
+        subscribe(second, sequencer, events);
+
+        first.onNext("a1");
+        second.onNext("b1");
+        subscription.unsubscribe();
+        sequencer.setFrozen(false);
+        assertEquals("[b1]", events.toString());
+    }
+
+    @Test
+    public void eventsAddedAfterClearAreEmitted() {
+        TestScheduler scheduler = new TestScheduler();
+        FreezeSequencer sequencer = new FreezeSequencer(scheduler);
+        PublishSubject<String> source = PublishSubject.create();
+        List<String> events = new ArrayList<>();
+        subscribe(source, sequencer, events);
+
+        source.onNext("a1");
+        sequencer.setFrozen(false);
+        sequencer.clear();
+        source.onNext("a2");
+        scheduler.triggerActions();
+        assertEquals("[a2]", events.toString());
+
+        sequencer.setFrozen(true);
+        source.onNext("a3");
+        sequencer.setFrozen(false);
+        scheduler.triggerActions();
+        assertEquals("[a2, a3]", events.toString());
+    }
+
+    @Test
+    public void sequencerIsFrozenByGate() {
+        FreezeGate gate = new FreezeGate(true);
+        FreezeSequencer sequencer = new FreezeSequencer(null);
+        sequencer.bindTo(gate);
+        PublishSubject<String> source = PublishSubject.create();
+        List<String> events = new ArrayList<>();
+        subscribe(source, sequencer, events);
+
+        source.onNext("a1");
+        assertEquals(0, events.size());
+
+        gate.setFrozen(false);
+        assertEquals("[a1]", events.toString());
+    }
+
+    private static Subscription subscribe(Observable<String> source,
+                                          FreezeSequencer sequencer,
+                                          List<String> events) {
+        return source.lift(new OperatorOrderedFreeze<String>(sequencer))
+                .subscribe(new EventsSubscriber(events));
+    }
+
+    private static class EventsSubscriber extends Subscriber<String> {
+
+        private final List<String> events;
+
+        EventsSubscriber(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void onCompleted() {
+            events.add("completed");
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            events.add("error");
+        }
+
+        @Override
+        public void onNext(String event) {
+            events.add(event);
+        }
+    }
+}
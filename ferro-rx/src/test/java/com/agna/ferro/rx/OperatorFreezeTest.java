@@ -0,0 +1,278 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Action1;
+import rx.observers.TestSubscriber;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+import rx.schedulers.Timestamped;
+import rx.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OperatorFreezeTest {
+
+    @Test
+    public void frozenEventsAreEmittedAfterUnfreezeInOrder() {
+        FreezeGate gate = new FreezeGate(true);
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        source.lift(new OperatorFreeze<Integer>(gate)).subscribe(subscriber);
+
+        source.onNext(1);
+        source.onNext(2);
+        subscriber.assertNoValues();
+
+        gate.setFrozen(false);
+        source.onNext(3);
+        subscriber.assertValues(1, 2, 3);
+    }
+
+    @Test
+    public void terminalEventIsEmittedAfterFrozenEvents() {
+        FreezeGate gate = new FreezeGate(true);
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        source.lift(new OperatorFreeze<Integer>(gate)).subscribe(subscriber);
+
+        source.onNext(1);
+        source.onError(new IllegalStateException());
+        subscriber.assertNoTerminalEvent();
+
+        gate.setFrozen(false);
+        subscriber.assertValue(1);
+        subscriber.assertError(IllegalStateException.class);
+    }
+
+    @Test
+    public void frozenOperatorEmitsOnlyRequestedEventsAfterUnfreeze() {
+        FreezeGate gate = new FreezeGate(true);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(0L);
+        Observable.range(1, 10)
+                .lift(new OperatorFreeze<Integer>(gate))
+                .subscribe(subscriber);
+
+        subscriber.requestMore(3);
+        subscriber.assertNoValues();
+
+        gate.setFrozen(false);
+        subscriber.assertValues(1, 2, 3);
+
+        subscriber.requestMore(2);
+        subscriber.assertValues(1, 2, 3, 4, 5);
+
+        gate.setFrozen(true);
+        subscriber.requestMore(5);
+        subscriber.assertValueCount(5);
+
+        gate.setFrozen(false);
+        subscriber.assertValues(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        subscriber.assertCompleted();
+    }
+
+    @Test
+    public void eventsRemovedByBufferAreRequestedFromSource() {
+        FreezeGate gate = new FreezeGate(false);
+        TestScheduler scheduler = new TestScheduler();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(3L);
+        Observable.range(1, 10)
+                .observeOn(scheduler)
+                .lift(new OperatorFreeze.Builder<Integer>(gate)
+                        .bufferFactory(FreezeBuffers.<Integer>latestOnly())
+                        .pauseRequestsWhileFrozen(true)
+                        .build())
+                .subscribe(subscriber);
+
+        gate.setFrozen(true);
+        scheduler.triggerActions();
+        subscriber.assertNoValues();
+
+        gate.setFrozen(false);
+        scheduler.triggerActions();
+        //only the last of 3 frozen events is kept, 2 removed events are requested again
+        subscriber.assertValues(3, 4, 5);
+    }
+
+    @Test
+    public void hotSourceWithObserveOnIsRequestedWhileFrozen() {
+        FreezeGate gate = new FreezeGate(true);
+        TestScheduler scheduler = new TestScheduler();
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        source.observeOn(scheduler)
+                .lift(new OperatorFreeze<Integer>(gate))
+                .subscribe(subscriber);
+
+        for (int i = 0; i < 1000; i++) {
+            source.onNext(i);
+            scheduler.triggerActions();
+        }
+        subscriber.assertNoErrors();
+        subscriber.assertNoValues();
+
+        gate.setFrozen(false);
+        subscriber.assertNoErrors();
+        subscriber.assertValueCount(1000);
+    }
+
+    @Test
+    public void requestsArePausedWhileFrozenIfEnabled() {
+        FreezeGate gate = new FreezeGate(true);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(3L);
+        final List<Long> requests = new ArrayList<>();
+        Observable.range(1, 10)
+                .doOnRequest(new Action1<Long>() {
+                    @Override
+                    public void call(Long n) {
+                        if (n > 0) {
+                            requests.add(n);
+                        }
+                    }
+                })
+                .lift(new OperatorFreeze.Builder<Integer>(gate)
+                        .pauseRequestsWhileFrozen(true)
+                        .build())
+                .subscribe(subscriber);
+        assertEquals(0, requests.size());
+
+        gate.setFrozen(false);
+        assertEquals("[3]", requests.toString());
+        subscriber.assertValues(1, 2, 3);
+    }
+
+    @Test
+    public void expiredEventsAreRemovedFromBuffer() {
+        FreezeGate gate = new FreezeGate(true);
+        TestScheduler scheduler = new TestScheduler();
+        final FreezeBuffer.Factory<Integer> expiring = FreezeBuffers.expiring(
+                FreezeBuffers.<Timestamped<Integer>>appendOnly(), 1, TimeUnit.SECONDS, scheduler);
+        final List<FreezeBuffer<Integer>> buffers = new ArrayList<>();
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        source.lift(new OperatorFreeze<>(gate, new FreezeBuffer.Factory<Integer>() {
+            @Override
+            public FreezeBuffer<Integer> create() {
+                FreezeBuffer<Integer> buffer = expiring.create();
+                buffers.add(buffer);
+                return buffer;
+            }
+        })).subscribe(subscriber);
+
+        source.onNext(1);
+        source.onNext(2);
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+        gate.setFrozen(false);
+        subscriber.assertNoValues();
+        assertEquals(0, buffers.get(0).size());
+
+        source.onNext(3);
+        subscriber.assertValues(3);
+    }
+
+    @Test
+    public void everyFreezeCycleIsReported() throws Exception {
+        FreezeGate gate = new FreezeGate(false);
+        PublishSubject<Integer> source = PublishSubject.create();
+        final List<FreezeCycleMetrics> cycles = new ArrayList<>();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        source.lift(new OperatorFreeze.Builder<Integer>(gate)
+                .metricsListener(new FreezeMetricsListener() {
+                    @Override
+                    public void onFreezeCycleFinished(FreezeCycleMetrics metrics) {
+                        cycles.add(metrics);
+                    }
+                })
+                .build())
+                .subscribe(subscriber);
+        assertEquals(0, cycles.size());
+
+        gate.setFrozen(true);
+        Thread.sleep(10);
+        gate.setFrozen(false);
+        assertEquals(1, cycles.size());
+        assertEquals(0, cycles.get(0).getBufferedEvents());
+        assertTrue(cycles.get(0).getFrozenTimeNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+
+        gate.setFrozen(true);
+        source.onNext(1);
+        gate.setFrozen(false);
+        assertEquals(2, cycles.size());
+        assertEquals(1, cycles.get(1).getBufferedEvents());
+        subscriber.assertValues(1);
+    }
+
+    @Test
+    public void eventsReceivedWhileDrainingAreNotReplacedIfRequested() {
+        FreezeGate gate = new FreezeGate(false);
+        final PublishSubject<Integer> source = PublishSubject.create();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(new Subscriber<Integer>() {
+            @Override
+            public void onCompleted() {
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onNext(Integer event) {
+                if (event == 1) {
+                    source.onNext(2);
+                    source.onNext(3);
+                }
+            }
+        });
+        source.lift(new OperatorFreeze<>(gate, FreezeBuffers.<Integer>latestOnly()))
+                .subscribe(subscriber);
+
+        source.onNext(1);
+        subscriber.assertValues(1, 2, 3);
+    }
+
+    @Test
+    public void concurrentFreezingDoesNotLoseOrReorderEvents() {
+        int count = 100000;
+        FreezeGate gate = new FreezeGate(false);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        Observable.range(0, count)
+                .subscribeOn(Schedulers.newThread())
+                .lift(new OperatorFreeze<Integer>(gate))
+                .subscribe(subscriber);
+
+        for (int i = 0; i < 10000; i++) {
+            gate.setFrozen(i % 2 == 0);
+        }
+        gate.setFrozen(false);
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertCompleted();
+        List<Integer> events = subscriber.getOnNextEvents();
+        assertEquals(count, events.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, events.get(i).intValue());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx2;
+
+import io.reactivex.exceptions.MissingBackpressureException;
+
+/**
+ * Buffer, which limits num of events in another buffer.
+ * {@link BufferOverflowPolicy} is applied only if event grows the buffer beyond capacity
+ * (event, which replaces buffered one, is always accepted). Built-in buffers tell in advance
+ * whether event grows them, event for another full buffer is considered as growing one
+ * by {@link BufferOverflowPolicy#DROP_NEWEST} and {@link BufferOverflowPolicy#ERROR}.
+ */
+final class BoundedFreezeBuffer<T> implements GrowthAwareFreezeBuffer<T> {
+
+    private final FreezeBuffer<T> buffer;
+    private final int capacity;
+    private final BufferOverflowPolicy overflowPolicy;
+
+    BoundedFreezeBuffer(FreezeBuffer<T> buffer, int capacity, BufferOverflowPolicy overflowPolicy) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void add(T event) throws MissingBackpressureException {
+        boolean rejectsNewest = overflowPolicy == BufferOverflowPolicy.DROP_NEWEST
+                || overflowPolicy == BufferOverflowPolicy.ERROR;
+        if (rejectsNewest && buffer.size() >= capacity && innerWillGrow(event)) {
+            if (overflowPolicy == BufferOverflowPolicy.ERROR) {
+                throw new MissingBackpressureException(
+                        "Freeze buffer is full, capacity: " + capacity);
+            }
+            return;
+        }
+        int sizeBefore = buffer.size();
+        buffer.add(event);
+        int sizeAfter = buffer.size();
+        if (sizeAfter <= sizeBefore || sizeAfter <= capacity) {
+            //event replaced buffered one or there is free space
+            return;
+        }
+        if (overflowPolicy == BufferOverflowPolicy.CONFLATE_LATEST) {
+            buffer.clear();
+            buffer.add(event);
+        } else {
+            //DROP_OLDEST, other policies get here only if inner buffer grew unexpectedly
+            buffer.poll();
+        }
+    }
+
+    @Override
+    public boolean willGrow(T event) {
+        return buffer.size() < capacity && innerWillGrow(event);
+    }
+
+    private boolean innerWillGrow(T event) {
+        return !(buffer instanceof GrowthAwareFreezeBuffer)
+                || ((GrowthAwareFreezeBuffer<T>) buffer).willGrow(event);
+    }
+
+    @Override
+    public T peek() {
+        return buffer.peek();
+    }
+
+    @Override
+    public T poll() {
+        return buffer.poll();
+    }
+
+    @Override
+    public int size() {
+        return buffer.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return buffer.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        buffer.clear();
+    }
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx2;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableOperator;
+import io.reactivex.FlowableTransformer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.fuseable.QueueSubscription;
+import io.reactivex.internal.fuseable.SimpleQueue;
+import io.reactivex.internal.queue.SpscLinkedArrayQueue;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * This operator freezes all rx events (onNext, onError, onComplete) of {@link Flowable}
+ * when {@link FreezeGate} is frozen, and unfreeze it after gate is unfrozen.
+ * Frozen normal (onNext) events are stored in {@link FreezeBuffer}, by default buffer keeps all
+ * events, use one of {@link FreezeBuffers} strategies for reducing num of buffered events.
+ *
+ * Operator supports backpressure, events are emitted only when child requests them.
+ * While operator is frozen, it does not request new events from source, so source stops emitting.
+ *
+ * Operator supports fusion with source: if source is synchronous (e.g. {@link Flowable#range}),
+ * events are pulled from source only when operator is unfrozen and child requests them,
+ * if source is asynchronous (e.g. {@link Flowable#observeOn}), events are taken directly
+ * from the queue of source, without additional queue. Source requests new events after polling
+ * of its queue, so the queue is polled only when operator is unfrozen and child requests events:
+ * frozen events stay in the queue of source (its size is limited by prefetch of source)
+ * and {@link FreezeBuffer} isn't used.
+ *
+ * Use it via {@link Flowable#lift} or {@link Flowable#compose}.
+ * Flowable after this operator can emit event in different threads
+ */
+public class FlowableOperatorFreeze<T> implements FlowableOperator<T, T>,
+        FlowableTransformer<T, T> {
+
+    private final FreezeGate freezeGate;
+    private final FreezeBuffer.Factory<T> bufferFactory;
+
+    public FlowableOperatorFreeze(FreezeGate freezeGate,
+                                  FreezeBuffer.Factory<T> bufferFactory) {
+        this.freezeGate = freezeGate;
+        this.bufferFactory = bufferFactory;
+    }
+
+    public FlowableOperatorFreeze(FreezeGate freezeGate) {
+        this(freezeGate, FreezeBuffers.<T>appendOnly());
+    }
+
+    @Override
+    public Subscriber<? super T> apply(Subscriber<? super T> child) {
+        return new FreezeSubscriber<>(child, freezeGate, bufferFactory.create());
+    }
+
+    @Override
+    public Publisher<T> apply(Flowable<T> upstream) {
+        return upstream.lift(this);
+    }
+
+    /**
+     * Subscriber, which emits events to child only if it is unfrozen and child requested them.
+     * Demand of child is passed to source only when it is unfrozen.
+     *
+     * Only one thread at a time (thread, which increments {@link #wip} from zero) moves events
+     * from the queue to the buffer and emits them to child, other threads only
+     * increment {@link #wip}, so emitting thread makes one more pass of drain loop.
+     */
+    private static final class FreezeSubscriber<T> implements Subscriber<T>, Subscription,
+            FreezeGate.Listener {
+
+        private final Subscriber<? super T> child;
+        private final FreezeGate freezeGate;
+        /**
+         * accessed only from drain loop
+         */
+        private final FreezeBuffer<T> frozenEventsBuffer;
+        private final AtomicInteger wip = new AtomicInteger();
+        /**
+         * num of events, which child requested, but not received
+         */
+        private final AtomicLong requested = new AtomicLong();
+        /**
+         * num of events, which need request from source when it is unfrozen
+         */
+        private final AtomicLong notRequestedFromSource = new AtomicLong();
+
+        private Subscription upstream;
+        /**
+         * queue of fused source or own queue, if source isn't fused
+         */
+        private SimpleQueue<T> queue;
+        private int sourceMode = QueueSubscription.NONE;
+        private volatile Disposable gateRegistration;
+
+        private volatile boolean frozen = true;
+        private volatile boolean done = false;
+        private Throwable error = null;
+        private volatile boolean cancelled = false;
+        /**
+         * true if source was cancelled because of error in buffer or in queue of fused source,
+         * accessed only from drain loop
+         */
+        private boolean upstreamFailed = false;
+
+        FreezeSubscriber(Subscriber<? super T> child,
+                         FreezeGate freezeGate,
+                         FreezeBuffer<T> frozenEventsBuffer) {
+            this.child = child;
+            this.freezeGate = freezeGate;
+            this.frozenEventsBuffer = frozenEventsBuffer;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onSubscribe(Subscription s) {
+            if (!SubscriptionHelper.validate(upstream, s)) {
+                return;
+            }
+            upstream = s;
+            if (s instanceof QueueSubscription) {
+                QueueSubscription<T> qs = (QueueSubscription<T>) s;
+                //events can be polled in another thread, e.g. when gate is unfrozen
+                int mode = qs.requestFusion(QueueSubscription.ANY | QueueSubscription.BOUNDARY);
+                if (mode == QueueSubscription.SYNC || mode == QueueSubscription.ASYNC) {
+                    sourceMode = mode;
+                    queue = qs;
+                }
+            }
+            if (queue == null) {
+                queue = new SpscLinkedArrayQueue<>(Flowable.bufferSize());
+            }
+            child.onSubscribe(this);
+            Disposable registration = freezeGate.register(this);
+            gateRegistration = registration;
+            if (cancelled) {
+                registration.dispose();
+            }
+        }
+
+        @Override
+        public void onNext(T event) {
+            if (done) {
+                return;
+            }
+            if (sourceMode == QueueSubscription.ASYNC) {
+                //event is in the queue of source
+                drain();
+                return;
+            }
+            if (wip.get() == 0 && wip.compareAndSet(0, 1)) {
+                //fast path, event is emitted or buffered without queue
+                if (!frozen && frozenEventsBuffer.isEmpty() && requested.get() > 0) {
+                    BackpressureHelper.produced(requested, 1);
+                    child.onNext(event);
+                    if (wip.decrementAndGet() == 0) {
+                        return;
+                    }
+                } else {
+                    bufferEvent(event);
+                }
+            } else {
+                queue.offer(event);
+                if (wip.getAndIncrement() != 0) {
+                    return;
+                }
+            }
+            drainLoop();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            error = e;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                BackpressureHelper.add(notRequestedFromSource, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            upstream.cancel();
+            disposeGateRegistration();
+            if (wip.getAndIncrement() == 0) {
+                queue.clear();
+                frozenEventsBuffer.clear();
+            }
+        }
+
+        @Override
+        public void onFreezeStateChanged(boolean frozen) {
+            this.frozen = frozen;
+            if (!frozen) {
+                drain();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() == 0) {
+                drainLoop();
+            }
+        }
+
+        private void drainLoop() {
+            if (sourceMode == QueueSubscription.SYNC) {
+                drainSyncLoop();
+            } else {
+                drainBufferLoop();
+            }
+        }
+
+        /**
+         * Drain loop for synchronous fused source, events are pulled from source
+         * when they are needed, so buffer isn't used
+         */
+        private void drainSyncLoop() {
+            int missed = 1;
+            for (; ; ) {
+                if (cancelled) {
+                    queue.clear();
+                    return;
+                }
+                if (!frozen) {
+                    while (!frozen && requested.get() > 0) {
+                        T event;
+                        try {
+                            event = queue.poll();
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            upstream.cancel();
+                            disposeGateRegistration();
+                            child.onError(ex);
+                            return;
+                        }
+                        if (cancelled) {
+                            return;
+                        }
+                        if (event == null) {
+                            disposeGateRegistration();
+                            child.onComplete();
+                            return;
+                        }
+                        BackpressureHelper.produced(requested, 1);
+                        child.onNext(event);
+                    }
+                    if (cancelled) {
+                        continue;
+                    }
+                    if (!frozen && queue.isEmpty()) {
+                        disposeGateRegistration();
+                        child.onComplete();
+                        return;
+                    }
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void drainBufferLoop() {
+            int missed = 1;
+            for (; ; ) {
+                if (cancelled) {
+                    queue.clear();
+                    frozenEventsBuffer.clear();
+                    return;
+                }
+
+                //done must be read before queue, because source sets it after last event
+                boolean sourceDone = done;
+                boolean asyncSource = sourceMode == QueueSubscription.ASYNC;
+                //polling of async source queue requests new events from upstream of source,
+                //so its events are polled only when child requests them
+                while (!asyncSource && !upstreamFailed) {
+                    T queuedEvent = pollQueue();
+                    if (queuedEvent == null) {
+                        break;
+                    }
+                    bufferEvent(queuedEvent);
+                }
+
+                if (!frozen) {
+                    while (!frozen && requested.get() > 0) {
+                        T event;
+                        if (!frozenEventsBuffer.isEmpty()) {
+                            event = frozenEventsBuffer.poll();
+                        } else if (asyncSource && !upstreamFailed) {
+                            event = pollQueue();
+                            if (event == null) {
+                                break;
+                            }
+                        } else {
+                            break;
+                        }
+                        BackpressureHelper.produced(requested, 1);
+                        child.onNext(event);
+                        if (cancelled) {
+                            break;
+                        }
+                    }
+                    if (cancelled) {
+                        continue;
+                    }
+                    if (!frozen && (sourceDone || upstreamFailed)
+                            && frozenEventsBuffer.isEmpty()
+                            && (!asyncSource || upstreamFailed || queue.isEmpty())) {
+                        disposeGateRegistration();
+                        Throwable e = error;
+                        if (e != null) {
+                            child.onError(e);
+                        } else {
+                            child.onComplete();
+                        }
+                        return;
+                    }
+                    long missedRequest = notRequestedFromSource.getAndSet(0);
+                    if (missedRequest > 0 && !sourceDone && !upstreamFailed) {
+                        upstream.request(missedRequest);
+                    }
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Add event to the buffer, if buffer removes events, the same num of events
+         * would be requested from source
+         */
+        private void bufferEvent(T event) {
+            if (upstreamFailed) {
+                return;
+            }
+            int sizeBefore = frozenEventsBuffer.size();
+            try {
+                frozenEventsBuffer.add(event);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                failUpstream(ex);
+                return;
+            }
+            int removedEvents = sizeBefore + 1 - frozenEventsBuffer.size();
+            if (removedEvents > 0 && requested.get() != Long.MAX_VALUE) {
+                BackpressureHelper.add(notRequestedFromSource, removedEvents);
+            }
+        }
+
+        /**
+         * @return next event of the queue or null, if queue is empty or polling failed
+         */
+        private T pollQueue() {
+            try {
+                return queue.poll();
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                failUpstream(ex);
+                return null;
+            }
+        }
+
+        /**
+         * Cancel source, error would be emitted after buffered events
+         */
+        private void failUpstream(Throwable ex) {
+            upstreamFailed = true;
+            error = ex;
+            done = true;
+            upstream.cancel();
+            queue.clear();
+        }
+
+        private void disposeGateRegistration() {
+            Disposable registration = gateRegistration;
+            if (registration != null) {
+                registration.dispose();
+            }
+        }
+    }
+}
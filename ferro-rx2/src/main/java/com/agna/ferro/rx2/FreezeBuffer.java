@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx2;
+
+import io.reactivex.exceptions.MissingBackpressureException;
+
+/**
+ * Storage for events, which {@link FlowableOperatorFreeze} or {@link ObservableOperatorFreeze}
+ * receives while it is frozen.
+ * Buffer decides which events would be kept and in what order they would be emitted
+ * when operator is unfrozen. Built-in strategies are available in {@link FreezeBuffers}.
+ *
+ * Buffer is accessed only from one thread at a time, so implementation need not be thread safe.
+ * Methods {@link #peek()} and {@link #poll()} must be called only if buffer is not empty.
+ *
+ * @param <T> type of events
+ */
+public interface FreezeBuffer<T> {
+
+    /**
+     * Add event to the buffer, buffer can remove or replace some already buffered events
+     * @throws MissingBackpressureException if buffer can't accept event,
+     *                                      freeze operator emits it after buffered events
+     */
+    void add(T event) throws MissingBackpressureException;
+
+    /**
+     * @return next event for emitting, event is not removed from the buffer
+     */
+    T peek();
+
+    /**
+     * @return next event for emitting, event is removed from the buffer
+     */
+    T poll();
+
+    /**
+     * @return num of events in the buffer
+     */
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * Remove all events from the buffer
+     */
+    void clear();
+
+    /**
+     * Factory of buffers, new buffer is created for each subscription
+     */
+    interface Factory<T> {
+        FreezeBuffer<T> create();
+    }
+}
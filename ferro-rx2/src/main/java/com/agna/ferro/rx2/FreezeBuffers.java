@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx2;
+
+import io.reactivex.functions.Function;
+
+/**
+ * Built-in strategies of {@link FreezeBuffer}
+ */
+public final class FreezeBuffers {
+
+    private static final FreezeBuffer.Factory<Object> APPEND_ONLY = new FreezeBuffer.Factory<Object>() {
+        @Override
+        public FreezeBuffer<Object> create() {
+            return new AppendOnlyFreezeBuffer<>();
+        }
+    };
+
+    private static final FreezeBuffer.Factory<Object> LATEST_ONLY = new FreezeBuffer.Factory<Object>() {
+        @Override
+        public FreezeBuffer<Object> create() {
+            return new LatestFreezeBuffer<>();
+        }
+    };
+
+    private FreezeBuffers() {
+    }
+
+    /**
+     * Buffer keeps all events, adding of event takes O(1)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FreezeBuffer.Factory<T> appendOnly() {
+        return (FreezeBuffer.Factory<T>) (FreezeBuffer.Factory<?>) APPEND_ONLY;
+    }
+
+    /**
+     * Buffer keeps only last event
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FreezeBuffer.Factory<T> latestOnly() {
+        return (FreezeBuffer.Factory<T>) (FreezeBuffer.Factory<?>) LATEST_ONLY;
+    }
+
+    /**
+     * Buffer keeps only last event for each key, adding of event takes O(1)
+     * @param keySelector - return key of event, key must implement equals and hashCode
+     */
+    public static <T, K> FreezeBuffer.Factory<T> keyedLatest(
+            final Function<? super T, ? extends K> keySelector) {
+        return new FreezeBuffer.Factory<T>() {
+            @Override
+            public FreezeBuffer<T> create() {
+                return new KeyedLatestFreezeBuffer<T, K>(keySelector);
+            }
+        };
+    }
+
+    /**
+     * Buffer keeps all events, but not more than capacity
+     * @param capacity - max num of events in buffer
+     * @param overflowPolicy - defines what happens, when event is added to the full buffer
+     */
+    public static <T> FreezeBuffer.Factory<T> bounded(int capacity,
+                                                      BufferOverflowPolicy overflowPolicy) {
+        return bounded(FreezeBuffers.<T>appendOnly(), capacity, overflowPolicy);
+    }
+
+    /**
+     * Limit num of events in buffers, created by another factory
+     * @param bufferFactory - factory of buffers, which are limited
+     * @param capacity - max num of events in buffer
+     * @param overflowPolicy - defines what happens, when event is added to the full buffer
+     */
+    public static <T> FreezeBuffer.Factory<T> bounded(final FreezeBuffer.Factory<T> bufferFactory,
+                                                      final int capacity,
+                                                      final BufferOverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        if (overflowPolicy == null) {
+            throw new NullPointerException("overflowPolicy is null");
+        }
+        return new FreezeBuffer.Factory<T>() {
+            @Override
+            public FreezeBuffer<T> create() {
+                return new BoundedFreezeBuffer<>(bufferFactory.create(), capacity, overflowPolicy);
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx2;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Function;
+
+/**
+ * Buffer, which keeps only last event for each key.
+ * New event removes buffered event with same key and is added to the end of buffer,
+ * so adding of event takes O(1).
+ */
+final class KeyedLatestFreezeBuffer<T, K> implements GrowthAwareFreezeBuffer<T> {
+
+    private final Function<? super T, ? extends K> keySelector;
+    private final LinkedHashMap<K, T> events = new LinkedHashMap<>();
+
+    KeyedLatestFreezeBuffer(Function<? super T, ? extends K> keySelector) {
+        this.keySelector = keySelector;
+    }
+
+    @Override
+    public void add(T event) {
+        K key = selectKey(event);
+        events.remove(key);
+        events.put(key, event);
+    }
+
+    @Override
+    public boolean willGrow(T event) {
+        return !events.containsKey(selectKey(event));
+    }
+
+    @Override
+    public T peek() {
+        return events.values().iterator().next();
+    }
+
+    @Override
+    public T poll() {
+        Iterator<Map.Entry<K, T>> it = events.entrySet().iterator();
+        T event = it.next().getValue();
+        it.remove();
+        return event;
+    }
+
+    @Override
+    public int size() {
+        return events.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        events.clear();
+    }
+
+    private K selectKey(T event) {
+        try {
+            return keySelector.apply(event);
+        } catch (Exception e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+}
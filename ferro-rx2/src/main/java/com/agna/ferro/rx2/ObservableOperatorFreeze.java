@@ -0,0 +1,359 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx2;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableOperator;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.disposables.DisposableHelper;
+import io.reactivex.internal.fuseable.QueueDisposable;
+import io.reactivex.internal.fuseable.SimpleQueue;
+import io.reactivex.internal.queue.SpscLinkedArrayQueue;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * This operator freezes all rx events (onNext, onError, onComplete) of {@link Observable}
+ * when {@link FreezeGate} is frozen, and unfreeze it after gate is unfrozen.
+ * Frozen normal (onNext) events are stored in {@link FreezeBuffer}, by default buffer keeps all
+ * events, use one of {@link FreezeBuffers} strategies for reducing num of buffered events.
+ *
+ * Operator supports fusion with source: if source is synchronous (e.g. {@link Observable#range}),
+ * events are pulled from source only when operator is unfrozen,
+ * if source is asynchronous (e.g. {@link Observable#observeOn}), events are taken directly
+ * from the queue of source, without additional queue.
+ *
+ * Use it via {@link Observable#lift} or {@link Observable#compose}.
+ * Observable after this operator can emit event in different threads
+ */
+public class ObservableOperatorFreeze<T> implements ObservableOperator<T, T>,
+        ObservableTransformer<T, T> {
+
+    private final FreezeGate freezeGate;
+    private final FreezeBuffer.Factory<T> bufferFactory;
+
+    public ObservableOperatorFreeze(FreezeGate freezeGate,
+                                    FreezeBuffer.Factory<T> bufferFactory) {
+        this.freezeGate = freezeGate;
+        this.bufferFactory = bufferFactory;
+    }
+
+    public ObservableOperatorFreeze(FreezeGate freezeGate) {
+        this(freezeGate, FreezeBuffers.<T>appendOnly());
+    }
+
+    @Override
+    public Observer<? super T> apply(Observer<? super T> child) {
+        return new FreezeObserver<>(child, freezeGate, bufferFactory.create());
+    }
+
+    @Override
+    public ObservableSource<T> apply(Observable<T> upstream) {
+        return upstream.lift(this);
+    }
+
+    /**
+     * Observer, which emits events to child only if it is unfrozen.
+     *
+     * Only one thread at a time (thread, which increments {@link #wip} from zero) moves events
+     * from the queue to the buffer and emits them to child, other threads only
+     * increment {@link #wip}, so emitting thread makes one more pass of drain loop.
+     */
+    private static final class FreezeObserver<T> implements Observer<T>, Disposable,
+            FreezeGate.Listener {
+
+        private final Observer<? super T> child;
+        private final FreezeGate freezeGate;
+        /**
+         * accessed only from drain loop
+         */
+        private final FreezeBuffer<T> frozenEventsBuffer;
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private Disposable upstream;
+        /**
+         * queue of fused source or own queue, if source isn't fused
+         */
+        private SimpleQueue<T> queue;
+        private int sourceMode = QueueDisposable.NONE;
+        private volatile Disposable gateRegistration;
+
+        private volatile boolean frozen = true;
+        private volatile boolean done = false;
+        private Throwable error = null;
+        private volatile boolean disposed = false;
+        /**
+         * true if source was disposed because of error in buffer or in queue of fused source,
+         * accessed only from drain loop
+         */
+        private boolean upstreamFailed = false;
+
+        FreezeObserver(Observer<? super T> child,
+                       FreezeGate freezeGate,
+                       FreezeBuffer<T> frozenEventsBuffer) {
+            this.child = child;
+            this.freezeGate = freezeGate;
+            this.frozenEventsBuffer = frozenEventsBuffer;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onSubscribe(Disposable d) {
+            if (!DisposableHelper.validate(upstream, d)) {
+                return;
+            }
+            upstream = d;
+            if (d instanceof QueueDisposable) {
+                QueueDisposable<T> qd = (QueueDisposable<T>) d;
+                //events can be polled in another thread, e.g. when gate is unfrozen
+                int mode = qd.requestFusion(QueueDisposable.ANY | QueueDisposable.BOUNDARY);
+                if (mode == QueueDisposable.SYNC || mode == QueueDisposable.ASYNC) {
+                    sourceMode = mode;
+                    queue = qd;
+                }
+            }
+            if (queue == null) {
+                queue = new SpscLinkedArrayQueue<>(Observable.bufferSize());
+            }
+            child.onSubscribe(this);
+            Disposable registration = freezeGate.register(this);
+            gateRegistration = registration;
+            if (disposed) {
+                registration.dispose();
+            }
+        }
+
+        @Override
+        public void onNext(T event) {
+            if (done) {
+                return;
+            }
+            if (sourceMode == QueueDisposable.ASYNC) {
+                //event is in the queue of source
+                drain();
+                return;
+            }
+            if (wip.get() == 0 && wip.compareAndSet(0, 1)) {
+                //fast path, event is emitted or buffered without queue
+                if (!frozen && frozenEventsBuffer.isEmpty()) {
+                    child.onNext(event);
+                    if (wip.decrementAndGet() == 0) {
+                        return;
+                    }
+                } else {
+                    bufferEvent(event);
+                }
+            } else {
+                queue.offer(event);
+                if (wip.getAndIncrement() != 0) {
+                    return;
+                }
+            }
+            drainLoop();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            error = e;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void dispose() {
+            if (disposed) {
+                return;
+            }
+            disposed = true;
+            upstream.dispose();
+            disposeGateRegistration();
+            if (wip.getAndIncrement() == 0) {
+                queue.clear();
+                frozenEventsBuffer.clear();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        @Override
+        public void onFreezeStateChanged(boolean frozen) {
+            this.frozen = frozen;
+            if (!frozen) {
+                drain();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() == 0) {
+                drainLoop();
+            }
+        }
+
+        private void drainLoop() {
+            if (sourceMode == QueueDisposable.SYNC) {
+                drainSyncLoop();
+            } else {
+                drainBufferLoop();
+            }
+        }
+
+        /**
+         * Drain loop for synchronous fused source, events are pulled from source
+         * when operator is unfrozen, so buffer isn't used
+         */
+        private void drainSyncLoop() {
+            int missed = 1;
+            for (; ; ) {
+                if (disposed) {
+                    queue.clear();
+                    return;
+                }
+                while (!frozen) {
+                    T event;
+                    try {
+                        event = queue.poll();
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        upstream.dispose();
+                        disposeGateRegistration();
+                        child.onError(ex);
+                        return;
+                    }
+                    if (disposed) {
+                        return;
+                    }
+                    if (event == null) {
+                        disposeGateRegistration();
+                        child.onComplete();
+                        return;
+                    }
+                    child.onNext(event);
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void drainBufferLoop() {
+            int missed = 1;
+            for (; ; ) {
+                if (disposed) {
+                    queue.clear();
+                    frozenEventsBuffer.clear();
+                    return;
+                }
+
+                //done must be read before queue, because source sets it after last event
+                boolean sourceDone = done;
+                while (!upstreamFailed) {
+                    T queuedEvent;
+                    try {
+                        queuedEvent = queue.poll();
+                    } catch (Throwable ex) {
+                        Exceptions.throwIfFatal(ex);
+                        failUpstream(ex);
+                        break;
+                    }
+                    if (queuedEvent == null) {
+                        break;
+                    }
+                    bufferEvent(queuedEvent);
+                }
+
+                if (!frozen) {
+                    while (!frozen && !frozenEventsBuffer.isEmpty()) {
+                        child.onNext(frozenEventsBuffer.poll());
+                        if (disposed) {
+                            break;
+                        }
+                    }
+                    if (disposed) {
+                        continue;
+                    }
+                    if (!frozen && (sourceDone || upstreamFailed) && frozenEventsBuffer.isEmpty()) {
+                        disposeGateRegistration();
+                        Throwable e = error;
+                        if (e != null) {
+                            child.onError(e);
+                        } else {
+                            child.onComplete();
+                        }
+                        return;
+                    }
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void bufferEvent(T event) {
+            if (upstreamFailed) {
+                return;
+            }
+            try {
+                frozenEventsBuffer.add(event);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                failUpstream(ex);
+            }
+        }
+
+        /**
+         * Dispose source, error would be emitted after buffered events
+         */
+        private void failUpstream(Throwable ex) {
+            upstreamFailed = true;
+            error = ex;
+            done = true;
+            upstream.dispose();
+            queue.clear();
+        }
+
+        private void disposeGateRegistration() {
+            Disposable registration = gateRegistration;
+            if (registration != null) {
+                registration.dispose();
+            }
+        }
+    }
+}
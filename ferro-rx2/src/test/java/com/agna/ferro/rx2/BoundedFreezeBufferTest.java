@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx2;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.functions.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class BoundedFreezeBufferTest {
+
+    private static final Function<Integer, Integer> PARITY = new Function<Integer, Integer>() {
+        @Override
+        public Integer apply(Integer event) {
+            return event % 2;
+        }
+    };
+
+    @Test
+    public void dropNewestAcceptsEventWhichReplacesBufferedOne() throws Exception {
+        FreezeBuffer<Integer> buffer = FreezeBuffers.bounded(
+                FreezeBuffers.keyedLatest(PARITY), 2, BufferOverflowPolicy.DROP_NEWEST).create();
+        buffer.add(0);
+        buffer.add(1);
+        buffer.add(2);
+        assertEquals("[1, 2]", drain(buffer));
+    }
+
+    @Test
+    public void dropNewestIgnoresEventWhichGrowsFullBuffer() throws Exception {
+        FreezeBuffer<Integer> buffer = FreezeBuffers.<Integer>bounded(
+                2, BufferOverflowPolicy.DROP_NEWEST).create();
+        buffer.add(0);
+        buffer.add(1);
+        buffer.add(2);
+        assertEquals("[0, 1]", drain(buffer));
+    }
+
+    @Test
+    public void dropOldestRemovesOldestEvent() throws Exception {
+        FreezeBuffer<Integer> buffer = FreezeBuffers.<Integer>bounded(
+                2, BufferOverflowPolicy.DROP_OLDEST).create();
+        buffer.add(0);
+        buffer.add(1);
+        buffer.add(2);
+        assertEquals("[1, 2]", drain(buffer));
+    }
+
+    @Test
+    public void errorIsThrownOnlyIfEventGrowsFullBuffer() throws Exception {
+        FreezeBuffer<Integer> buffer = FreezeBuffers.bounded(
+                FreezeBuffers.keyedLatest(PARITY), 2, BufferOverflowPolicy.ERROR).create();
+        buffer.add(0);
+        buffer.add(1);
+        buffer.add(3);
+        FreezeBuffer<Integer> appendOnly = FreezeBuffers.<Integer>bounded(
+                2, BufferOverflowPolicy.ERROR).create();
+        appendOnly.add(0);
+        appendOnly.add(1);
+        try {
+            appendOnly.add(2);
+            fail("buffer is full");
+        } catch (MissingBackpressureException expected) {
+            assertEquals("[0, 1]", drain(appendOnly));
+        }
+        assertEquals("[0, 3]", drain(buffer));
+    }
+
+    private static String drain(FreezeBuffer<Integer> buffer) {
+        List<Integer> events = new ArrayList<>();
+        while (!buffer.isEmpty()) {
+            events.add(buffer.poll());
+        }
+        return events.toString();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx2;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.LongConsumer;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlowableOperatorFreezeTest {
+
+    @Test
+    public void frozenEventsAreEmittedAfterUnfreezeInOrder() {
+        FreezeGate gate = new FreezeGate(false);
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        source.lift(new FlowableOperatorFreeze<Integer>(gate)).subscribe(subscriber);
+
+        source.onNext(1);
+        gate.setFrozen(true);
+        source.onNext(2);
+        source.onNext(3);
+        subscriber.assertValues(1);
+
+        gate.setFrozen(false);
+        source.onNext(4);
+        subscriber.assertValues(1, 2, 3, 4);
+    }
+
+    @Test
+    public void terminalEventIsEmittedAfterFrozenEvents() {
+        FreezeGate gate = new FreezeGate(false);
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        source.lift(new FlowableOperatorFreeze<Integer>(gate)).subscribe(subscriber);
+
+        gate.setFrozen(true);
+        source.onNext(1);
+        source.onError(new IllegalStateException());
+        subscriber.assertNotTerminated();
+
+        gate.setFrozen(false);
+        subscriber.assertValue(1);
+        subscriber.assertError(IllegalStateException.class);
+    }
+
+    @Test
+    public void frozenOperatorEmitsOnlyRequestedEventsAfterUnfreeze() {
+        FreezeGate gate = new FreezeGate(true);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(0L);
+        Flowable.range(1, 10)
+                .lift(new FlowableOperatorFreeze<Integer>(gate))
+                .subscribe(subscriber);
+
+        subscriber.request(3);
+        subscriber.assertNoValues();
+
+        gate.setFrozen(false);
+        subscriber.assertValues(1, 2, 3);
+
+        subscriber.request(2);
+        subscriber.assertValues(1, 2, 3, 4, 5);
+
+        gate.setFrozen(true);
+        subscriber.request(5);
+        subscriber.assertValueCount(5);
+
+        gate.setFrozen(false);
+        subscriber.assertValues(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        subscriber.assertComplete();
+    }
+
+    @Test
+    public void frozenEventsAreCoalescedByBuffer() {
+        FreezeGate gate = new FreezeGate(false);
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        source.lift(new FlowableOperatorFreeze<>(gate, FreezeBuffers.<Integer>latestOnly()))
+                .subscribe(subscriber);
+
+        gate.setFrozen(true);
+        source.onNext(1);
+        source.onNext(2);
+        source.onNext(3);
+        subscriber.assertNoValues();
+
+        gate.setFrozen(false);
+        subscriber.assertValues(3);
+    }
+
+    @Test
+    public void asyncSourceIsPolledOnlyForRequestedEvents() {
+        FreezeGate gate = new FreezeGate(false);
+        TestScheduler scheduler = new TestScheduler();
+        final AtomicLong requestedFromSource = new AtomicLong();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(1L);
+        Flowable.range(0, 100000)
+                .doOnRequest(new LongConsumer() {
+                    @Override
+                    public void accept(long n) {
+                        requestedFromSource.addAndGet(n);
+                    }
+                })
+                .observeOn(scheduler)
+                .lift(new FlowableOperatorFreeze<Integer>(gate))
+                .subscribe(subscriber);
+
+        scheduler.triggerActions();
+        subscriber.assertValues(0);
+        assertTrue(requestedFromSource.get() <= Flowable.bufferSize());
+
+        gate.setFrozen(true);
+        subscriber.request(2);
+        scheduler.triggerActions();
+        subscriber.assertValues(0);
+
+        gate.setFrozen(false);
+        scheduler.triggerActions();
+        subscriber.assertValues(0, 1, 2);
+        assertTrue(requestedFromSource.get() <= Flowable.bufferSize());
+    }
+
+    @Test
+    public void concurrentFreezingDoesNotLoseOrReorderEvents() {
+        int count = 100000;
+        FreezeGate gate = new FreezeGate(false);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        Flowable.range(0, count)
+                .subscribeOn(Schedulers.newThread())
+                .lift(new FlowableOperatorFreeze<Integer>(gate))
+                .subscribe(subscriber);
+
+        for (int i = 0; i < 10000; i++) {
+            gate.setFrozen(i % 2 == 0);
+        }
+        gate.setFrozen(false);
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertComplete();
+        List<Integer> events = subscriber.values();
+        assertEquals(count, events.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, events.get(i).intValue());
+        }
+    }
+}
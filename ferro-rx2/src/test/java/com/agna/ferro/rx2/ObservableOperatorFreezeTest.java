@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 Maxim Tuev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.agna.ferro.rx2;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+
+public class ObservableOperatorFreezeTest {
+
+    @Test
+    public void frozenEventsAreEmittedAfterUnfreezeInOrder() {
+        FreezeGate gate = new FreezeGate(true);
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestObserver<Integer> observer = new TestObserver<>();
+        source.lift(new ObservableOperatorFreeze<Integer>(gate)).subscribe(observer);
+
+        source.onNext(1);
+        source.onNext(2);
+        observer.assertNoValues();
+
+        gate.setFrozen(false);
+        source.onNext(3);
+        observer.assertValues(1, 2, 3);
+    }
+
+    @Test
+    public void terminalEventIsEmittedAfterFrozenEvents() {
+        FreezeGate gate = new FreezeGate(true);
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestObserver<Integer> observer = new TestObserver<>();
+        source.lift(new ObservableOperatorFreeze<Integer>(gate)).subscribe(observer);
+
+        source.onNext(1);
+        source.onError(new IllegalStateException());
+        observer.assertNotTerminated();
+
+        gate.setFrozen(false);
+        observer.assertValue(1);
+        observer.assertError(IllegalStateException.class);
+    }
+
+    @Test
+    public void frozenEventsAreCoalescedByBuffer() {
+        FreezeGate gate = new FreezeGate(true);
+        PublishSubject<Integer> source = PublishSubject.create();
+        TestObserver<Integer> observer = new TestObserver<>();
+        source.lift(new ObservableOperatorFreeze<>(gate, FreezeBuffers.<Integer>latestOnly()))
+                .subscribe(observer);
+
+        source.onNext(1);
+        source.onNext(2);
+        source.onNext(3);
+        observer.assertNoValues();
+
+        gate.setFrozen(false);
+        observer.assertValues(3);
+    }
+
+    @Test
+    public void synchronousSourceIsPulledAfterUnfreeze() {
+        FreezeGate gate = new FreezeGate(true);
+        TestObserver<Integer> observer = new TestObserver<>();
+        Observable.range(1, 5)
+                .lift(new ObservableOperatorFreeze<Integer>(gate))
+                .subscribe(observer);
+        observer.assertNoValues();
+
+        gate.setFrozen(false);
+        observer.assertValues(1, 2, 3, 4, 5);
+        observer.assertComplete();
+    }
+
+    @Test
+    public void concurrentFreezingDoesNotLoseOrReorderEvents() {
+        int count = 100000;
+        FreezeGate gate = new FreezeGate(false);
+        TestObserver<Integer> observer = new TestObserver<>();
+        Observable.range(0, count)
+                .subscribeOn(Schedulers.newThread())
+                .lift(new ObservableOperatorFreeze<Integer>(gate))
+                .subscribe(observer);
+
+        for (int i = 0; i < 10000; i++) {
+            gate.setFrozen(i % 2 == 0);
+        }
+        gate.setFrozen(false);
+
+        observer.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        observer.assertComplete();
+        List<Integer> events = observer.values();
+        assertEquals(count, events.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, events.get(i).intValue());
+        }
+    }
+}
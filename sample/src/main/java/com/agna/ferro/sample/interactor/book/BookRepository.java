@@ -3,6 +3,8 @@ package com.agna.ferro.sample.interactor.book;
 import android.content.Context;
 
 import com.agna.ferro.mvp.component.scope.PerApplication;
+import com.agna.ferro.rx.FreezableRelay;
+import com.agna.ferro.rx.FreezeGate;
 import com.agna.ferro.sample.R;
 import com.agna.ferro.sample.domain.Book;
 
@@ -16,7 +18,6 @@ import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 
 import rx.Observable;
-import rx.subjects.PublishSubject;
 
 /**
  * Repository of books
@@ -27,7 +28,7 @@ public class BookRepository {
     private final Context appContext;
 
     private CopyOnWriteArrayList<Book> books;
-    private PublishSubject<Book> changingBookSubject = PublishSubject.create();
+    private FreezableRelay<Book> changingBookRelay = new FreezableRelay<>(64);
 
     @Inject
     public BookRepository(Context appContext) {
@@ -82,14 +83,22 @@ public class BookRepository {
      * emit event, when book changed
      */
     public Observable<Book> observeChangingBooks() {
-        return changingBookSubject;
+        return changingBookRelay.asObservable();
+    }
+
+    /**
+     * emit event, when book changed, events are frozen while freezeGate is frozen,
+     * all screens share one buffer of events
+     */
+    public Observable<Book> observeChangingBooks(FreezeGate freezeGate) {
+        return changingBookRelay.observe(freezeGate);
     }
 
     private void updateBook(String bookId, int downloadProgress) {
         for (Book book : books) {
             if (book.getId().equals(bookId)) {
                 book.setDownloadProgress(downloadProgress);
-                changingBookSubject.onNext(book);
+                changingBookRelay.onNext(book);
                 break;
             }
         }
@@ -1,7 +1,9 @@
 package com.agna.ferro.sample.ui.screen.book;
 
 import com.agna.ferro.mvp.component.scope.PerScreen;
+import com.agna.ferro.mvprx.InFlightPolicy;
 import com.agna.ferro.mvprx.MvpRxPresenter;
+import com.agna.ferro.rx.FreezeBuffers;
 import com.agna.ferro.rx.OperatorFreeze;
 import com.agna.ferro.sample.domain.Book;
 import com.agna.ferro.sample.interactor.book.BookRepository;
@@ -10,7 +12,6 @@ import javax.inject.Inject;
 
 import rx.Observable;
 import rx.Subscriber;
-import rx.Subscription;
 import rx.android.schedulers.AndroidSchedulers;
 import timber.log.Timber;
 
@@ -29,11 +30,12 @@ import timber.log.Timber;
 @PerScreen
 class BookPresenter extends MvpRxPresenter<BookFragmentView> {
 
+    private static final String LOAD_BOOK_KEY = "loadBook";
+
     private final BookRepository bookRepository;
     private final String bookId;
 
     private FullBookModel fullBookModel;
-    private Subscription loadFullBookSubscription;
 
     @Inject
     public BookPresenter(BookRepository bookRepository, String bookId) {
@@ -63,7 +65,7 @@ class BookPresenter extends MvpRxPresenter<BookFragmentView> {
         if (fullBookModel != null) {
             //if books already loaded, just show data
             onLoadDataSuccess(fullBookModel);
-        } else if (isSubscriptionInactive(loadFullBookSubscription)) {
+        } else if (!isRequestInFlight(LOAD_BOOK_KEY)) {
             //if data isn't loading now, start loading
             getView().showLoading();
             loadData();
@@ -75,7 +77,8 @@ class BookPresenter extends MvpRxPresenter<BookFragmentView> {
 
     /**
      * example of simple request
-     * you do not check already loaded data and loading status
+     * you do not check already loaded data and loading status,
+     * request isn't started again while book is loading
      */
     public void reloadData() {
         loadData();
@@ -88,26 +91,28 @@ class BookPresenter extends MvpRxPresenter<BookFragmentView> {
                 FullBookModel::new)
                 .observeOn(AndroidSchedulers.mainThread());
 
-        loadFullBookSubscription = subscribe(observable,
+        subscribe(LOAD_BOOK_KEY, observable, InFlightPolicy.IGNORE,
                 this::onLoadDataSuccess,
                 this::onLoadDataError);
     }
 
     /**
      * example for subscribing to observable, which emits many events
+     * Events are frozen in the relay of repository, so all screens share one buffer of events
      */
     private void observeChangingBook() {
-        Observable<Book> observable = bookRepository.observeChangingBooks()
+        Observable<Book> observable = bookRepository.observeChangingBooks(getFreezeGate())
                 //getting event only for book with bookId
                 .filter(book -> book.getId().equals(bookId))
                 .observeOn(AndroidSchedulers.mainThread());
 
         subscribe(observable,
+                //Events, which are in observeOn queue when screen is frozen, are frozen here.
                 //Keep only last book in freeze buffer.
                 //This prevent handling not relevant events when buffer would be unfrozen.
                 //You can simple unsubscribe/subscrube to this observable and not use
-                //  replaceFrozenEventPredicate, but then you can miss important event
-                (frozenBook, newBook) -> true,
+                //  freeze buffer strategy, but then you can miss important event
+                FreezeBuffers.latestOnly(),
                 this::updateBook,
                 e -> Timber.e(e, "update book error"));
 
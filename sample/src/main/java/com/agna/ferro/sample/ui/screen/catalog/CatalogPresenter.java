@@ -3,20 +3,23 @@ package com.agna.ferro.sample.ui.screen.catalog;
 import com.agna.ferro.core.PersistentScreenScope;
 import com.agna.ferro.mvp.component.provider.ActivityProvider;
 import com.agna.ferro.mvp.component.scope.PerScreen;
+import com.agna.ferro.mvprx.InFlightPolicy;
 import com.agna.ferro.mvprx.MvpRxPresenter;
+import com.agna.ferro.rx.FreezeBuffers;
 import com.agna.ferro.rx.OperatorFreeze;
 import com.agna.ferro.sample.domain.Book;
 import com.agna.ferro.sample.interactor.book.BookRepository;
 import com.agna.ferro.sample.ui.common.navigation.Navigator;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
 import rx.Observable;
 import rx.Subscriber;
-import rx.Subscription;
 import rx.android.schedulers.AndroidSchedulers;
 import timber.log.Timber;
 
@@ -46,8 +49,9 @@ class CatalogPresenter extends MvpRxPresenter<CatalogActivityView> {
     private final BookRepository bookRepository;
 
 
+    private static final String LOAD_BOOKS_KEY = "loadBooks";
+
     private List<Book> books = new ArrayList<>();
-    private Subscription loadBookSubscription;
 
     @Inject
     public CatalogPresenter(BookRepository bookRepository, Navigator navigator) {
@@ -71,7 +75,7 @@ class CatalogPresenter extends MvpRxPresenter<CatalogActivityView> {
         if (books.size() != 0) {
             //if books already loaded, just show data
             onLoadBooksSuccess(books);
-        } else if (isSubscriptionInactive(loadBookSubscription)) {
+        } else if (!isRequestInFlight(LOAD_BOOKS_KEY)) {
             //if data isn't loading now, start loading
             getView().showLoading();
             loadData();
@@ -83,7 +87,8 @@ class CatalogPresenter extends MvpRxPresenter<CatalogActivityView> {
 
     /**
      * example of simple request
-     * you do not check already loaded data and loading status
+     * you do not check already loaded data and loading status,
+     * request isn't started again while books are loading
      */
     public void reloadData() {
         loadData();
@@ -92,38 +97,52 @@ class CatalogPresenter extends MvpRxPresenter<CatalogActivityView> {
     private void loadData() {
         Observable<List<Book>> observable = bookRepository.getBooks()
                 .observeOn(AndroidSchedulers.mainThread());
-        loadBookSubscription = subscribe(observable,
+        subscribe(LOAD_BOOKS_KEY, observable, InFlightPolicy.IGNORE,
                 this::onLoadBooksSuccess,
                 this::onLoadBooksError);
     }
 
     /**
      * example for subscribing to observable, which emits many events
+     * All events, which were frozen, are received as one list, so view is updated once
      */
     private void observeChangingBooks() {
         Observable<Book> observable = bookRepository.observeChangingBooks()
                 .observeOn(AndroidSchedulers.mainThread());
-        subscribe(observable,
+        subscribeBatched(observable,
                 //Keep only last book with different id in freeze buffer.
                 //This prevent handling not relevant events when buffer would be unfrozen.
                 //You can simple unsubscribe/subscrube to this observable and not use
-                //  replaceFrozenEventPredicate, but then you can miss important event
-                (frozenBook, newBook) -> frozenBook.getId().equals(newBook.getId()),
-                this::updateBook,
+                //  freeze buffer strategy, but then you can miss important event
+                FreezeBuffers.keyedLatest(Book::getId),
+                this::updateBooks,
                 e -> Timber.e(e, "load data error"));
 
     }
 
-    private void updateBook(Book newBook) {
-        for(int i = 0; i<books.size(); i++){
-            Book book = books.get(i);
-            if (book.getId().equals(newBook.getId())) {
+    private void updateBooks(List<Book> newBooks) {
+        Map<String, Book> newBooksById = new HashMap<>();
+        for (Book newBook : newBooks) {
+            newBooksById.put(newBook.getId(), newBook);
+        }
+        int changedPosition = -1;
+        int changedCount = 0;
+        for (int i = 0; i < books.size() && changedCount < newBooksById.size(); i++) {
+            Book newBook = newBooksById.get(books.get(i).getId());
+            if (newBook != null) {
                 books.set(i, newBook);
-                getView().updateBooksData(books);
-                getView().notifyItemChanged(i);
-                break;
+                changedPosition = i;
+                changedCount++;
             }
-
+        }
+        if (changedCount == 0) {
+            return;
+        }
+        getView().updateBooksData(books);
+        if (changedCount == 1) {
+            getView().notifyItemChanged(changedPosition);
+        } else {
+            getView().notifyDataChanged();
         }
     }
 